@@ -0,0 +1,68 @@
+package com.sky.erm.load;
+
+import com.sky.erm.ErmApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Target of a load test. Unless {@code -DbaseUrl} points at a running instance, starts PostgreSQL in a
+ * container and the application against it with the dev profile, so a run needs nothing but Docker and
+ * always starts from the same freshly migrated database.
+ */
+final class LoadTestEnvironment {
+
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+
+    private static LoadTestEnvironment instance;
+
+    private final String baseUrl;
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext application;
+
+    private LoadTestEnvironment(String baseUrl, PostgreSQLContainer<?> postgres, ConfigurableApplicationContext application) {
+        this.baseUrl = baseUrl;
+        this.postgres = postgres;
+        this.application = application;
+    }
+
+    static synchronized LoadTestEnvironment start() {
+        if (instance == null) {
+            String baseUrl = System.getProperty("baseUrl");
+            instance = baseUrl != null ? new LoadTestEnvironment(baseUrl, null, null) : startLocal();
+        }
+        return instance;
+    }
+
+    private static LoadTestEnvironment startLocal() {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(POSTGRES_IMAGE)
+                .withDatabaseName("erm");
+        postgres.start();
+        ConfigurableApplicationContext application = new SpringApplicationBuilder(ErmApplication.class)
+                .profiles("dev")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "logging.level.com.sky.erm=INFO",
+                        "logging.level.org.flywaydb=INFO")
+                .run();
+        String port = application.getEnvironment().getRequiredProperty("local.server.port");
+        return new LoadTestEnvironment("http://localhost:" + port, postgres, application);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    synchronized void stop() {
+        if (application != null) {
+            application.close();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+        instance = null;
+    }
+}
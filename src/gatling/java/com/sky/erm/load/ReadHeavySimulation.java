@@ -0,0 +1,60 @@
+package com.sky.erm.load;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.sky.erm.load.UserRequests.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Mostly reads of a seeded population of users, with one write in ten: the expected production mix.
+ * Readers revalidate users with their ETag, so the run also covers 304 responses.
+ */
+public class ReadHeavySimulation extends Simulation {
+
+    private static final int SEED_BATCHES = Integer.getInteger("seedBatches", 25);
+    private static final int REQUESTS_PER_USER = Integer.getInteger("requestsPerUser", 10);
+    private static final double USERS_PER_SEC = Double.parseDouble(System.getProperty("usersPerSec", "50"));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 120));
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+    private final List<String> seededUserIds = new CopyOnWriteArrayList<>();
+
+    private final ScenarioBuilder seed = scenario("Seed users")
+            .repeat(SEED_BATCHES).on(
+                    createUsers()
+                            .exec(session -> {
+                                seededUserIds.addAll(session.getList("userIds"));
+                                return session;
+                            }));
+
+    private final ScenarioBuilder readers = scenario("Read-heavy")
+            .repeat(REQUESTS_PER_USER).on(
+                    exec(session -> session.set("userId",
+                            seededUserIds.get(ThreadLocalRandom.current().nextInt(seededUserIds.size()))))
+                            .randomSwitch().on(
+                                    percent(40.0).then(getUserById().exec(revalidateUser())),
+                                    percent(30.0).then(getUserProjects()),
+                                    percent(20.0).then(getAllUsers()),
+                                    percent(10.0).then(addProjectToUser())));
+
+    {
+        setUp(seed.injectOpen(atOnceUsers(1))
+                .andThen(readers.injectOpen(
+                        rampUsersPerSec(1).to(USERS_PER_SEC).during(RAMP),
+                        constantUsersPerSec(USERS_PER_SEC).during(DURATION))))
+                .protocols(httpProtocol(environment.baseUrl()))
+                .assertions(releaseGates());
+    }
+
+    @Override
+    public void after() {
+        environment.stop();
+    }
+}
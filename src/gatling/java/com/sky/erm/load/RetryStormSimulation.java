@@ -0,0 +1,64 @@
+package com.sky.erm.load;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.sky.erm.load.UserRequests.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Clients retrying writes with the same Request-Id, both one after another and from several virtual
+ * users at once, which exercises idempotency claims, in-progress conflicts and stored-response replays.
+ * 409 responses to duplicates are expected and do not count as errors.
+ */
+public class RetryStormSimulation extends Simulation {
+
+    private static final int ATTEMPTS = Integer.getInteger("attempts", 5);
+    private static final int USERS_PER_REQUEST_ID = Integer.getInteger("usersPerRequestId", 4);
+    private static final double USERS_PER_SEC = Double.parseDouble(System.getProperty("usersPerSec", "40"));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 120));
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+
+    private final ScenarioBuilder retryingClients = scenario("Retry storm")
+            .feed(sharedRequestIds())
+            .exec(retriedCreateUser(ATTEMPTS))
+            .doIf(UserRequests::hasUser).then(
+                    exec(retriedAddProjectToUser(ATTEMPTS)));
+
+    {
+        setUp(retryingClients.injectOpen(
+                rampUsersPerSec(1).to(USERS_PER_SEC).during(RAMP),
+                constantUsersPerSec(USERS_PER_SEC).during(DURATION)))
+                .protocols(httpProtocol(environment.baseUrl()))
+                .assertions(releaseGates());
+    }
+
+    @Override
+    public void after() {
+        environment.stop();
+    }
+
+    /**
+     * Hands the same Request-Id and email to {@code USERS_PER_REQUEST_ID} consecutive virtual users, which
+     * start within milliseconds of each other and so race on the same key.
+     */
+    private static Iterator<Map<String, Object>> sharedRequestIds() {
+        String run = UUID.randomUUID().toString();
+        AtomicLong user = new AtomicLong();
+        return Stream.generate(() -> {
+            long group = user.getAndIncrement() / USERS_PER_REQUEST_ID;
+            return Map.<String, Object>of(
+                    "requestId", UUID.nameUUIDFromBytes((run + group).getBytes()).toString(),
+                    "email", "storm-" + group + "-" + run + "@example.com");
+        }).iterator();
+    }
+}
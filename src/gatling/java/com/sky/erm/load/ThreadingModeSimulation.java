@@ -0,0 +1,39 @@
+package com.sky.erm.load;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+
+import static com.sky.erm.load.UserRequests.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Compares the platform-thread and virtual-thread request modes. Run it once against an instance started
+ * with the dev profile and once against dev,virtual-threads, then compare the throughput and p99 of the
+ * two reports.
+ * <p>
+ * The workload mixes BCrypt-bound creates with JDBC-bound reads under a fixed number of concurrent users,
+ * which should be set well above Tomcat's 200 worker threads for the difference to show.
+ */
+public class ThreadingModeSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8090");
+    private static final int CONCURRENCY = Integer.getInteger("concurrency", 1000);
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 120));
+
+    private final ScenarioBuilder userLifecycle = scenario("User lifecycle")
+            .exec(createUser())
+            .exec(addProjectToUser())
+            .repeat(5).on(
+                    exec(getUserById())
+                    .exec(getUserProjects()));
+
+    {
+        setUp(userLifecycle.injectClosed(
+                rampConcurrentUsers(0).to(CONCURRENCY).during(RAMP),
+                constantConcurrentUsers(CONCURRENCY).during(DURATION)))
+                .protocols(httpProtocol(BASE_URL));
+    }
+}
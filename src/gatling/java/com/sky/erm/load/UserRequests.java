@@ -0,0 +1,172 @@
+package com.sky.erm.load;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Requests for every UsersApi operation, shared by the load test simulations. Each chain reads the
+ * user it acts on from the {@code userId} session attribute, which {@link #createUser} sets.
+ */
+final class UserRequests {
+
+    private static final String USERS = "/api/v1/users";
+    private static final String USER = USERS + "/#{userId}";
+    private static final int BATCH_SIZE = Integer.getInteger("batchSize", 20);
+
+    private UserRequests() {
+    }
+
+    static HttpProtocolBuilder httpProtocol(String baseUrl) {
+        return http
+                .baseUrl(baseUrl)
+                .basicAuth("tarek", "password")
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json");
+    }
+
+    /**
+     * Release gates: the run fails when the error rate, the p99 latency or the throughput miss the
+     * thresholds given as system properties.
+     */
+    static Assertion[] releaseGates() {
+        return new Assertion[]{
+                global().failedRequests().percent().lte(Double.parseDouble(System.getProperty("maxErrorPercent", "1.0"))),
+                global().responseTime().percentile(99.0).lte(Integer.getInteger("maxP99Millis", 1000)),
+                global().requestsPerSec().gte(Double.parseDouble(System.getProperty("minRequestsPerSec", "0")))
+        };
+    }
+
+    static ChainBuilder createUser() {
+        return exec(session -> session.set("email", uniqueEmail()))
+                .exec(http("createUser")
+                        .post(USERS)
+                        .header("Request-Id", session -> UUID.randomUUID().toString())
+                        .body(StringBody("{\"email\":\"#{email}\",\"password\":\"password123\",\"name\":\"Load Test\"}"))
+                        .check(status().is(201), jsonPath("$.id").saveAs("userId")));
+    }
+
+    static ChainBuilder createUsers() {
+        return exec(http("createUsers")
+                .post(USERS + ":batch")
+                .header("Request-Id", session -> UUID.randomUUID().toString())
+                .body(StringBody(session -> usersBatch()))
+                .check(status().is(200), jsonPath("$.results[*].user.id").findAll().saveAs("userIds")));
+    }
+
+    static ChainBuilder getAllUsers() {
+        return exec(http("getAllUsers")
+                .get(USERS)
+                .queryParam("limit", 50)
+                .check(status().is(200)));
+    }
+
+    static ChainBuilder getUserById() {
+        return exec(http("getUserById")
+                .get(USER)
+                .check(status().is(200), header("ETag").saveAs("userETag")));
+    }
+
+    /**
+     * Reads the user again with the ETag of the previous read, as a caching client would.
+     */
+    static ChainBuilder revalidateUser() {
+        return exec(http("getUserById (If-None-Match)")
+                .get(USER)
+                .header("If-None-Match", "#{userETag}")
+                .check(status().in(200, 304)));
+    }
+
+    static ChainBuilder getUserProjects() {
+        return exec(http("getUserProjects")
+                .get(USER + "/projects")
+                .queryParam("limit", 50)
+                .check(status().in(200, 304)));
+    }
+
+    static ChainBuilder updateUser() {
+        return exec(http("updateUser")
+                .put(USER)
+                .header("Request-Id", session -> UUID.randomUUID().toString())
+                .body(StringBody(session -> "{\"name\":\"Load Test " + UUID.randomUUID() + "\"}"))
+                // A concurrent update of the same user is rejected rather than lost
+                .check(status().in(200, 409)));
+    }
+
+    static ChainBuilder addProjectToUser() {
+        return exec(http("addProjectToUser")
+                .post(USER + "/projects")
+                .header("Request-Id", session -> UUID.randomUUID().toString())
+                .body(StringBody(session -> "{\"id\":\"proj-" + UUID.randomUUID() + "\",\"name\":\"Load Project\"}"))
+                .check(status().is(201)));
+    }
+
+    static ChainBuilder addProjectsToUser() {
+        return exec(http("addProjectsToUser")
+                .post(USER + "/projects:batch")
+                .header("Request-Id", session -> UUID.randomUUID().toString())
+                .body(StringBody(session -> projectsBatch()))
+                .check(status().is(200)));
+    }
+
+    static ChainBuilder deleteUser() {
+        return exec(http("deleteUser")
+                .delete(USER)
+                .check(status().is(204)));
+    }
+
+    /**
+     * Sends the same create a number of times with the {@code requestId} and {@code email} session
+     * attributes, as a client retrying on timeouts would. Only one attempt with a given Request-Id may
+     * create the user; the others get 409 while it is in progress and its stored response afterwards.
+     */
+    static ChainBuilder retriedCreateUser(int attempts) {
+        return repeat(attempts).on(
+                exec(http("createUser (retried)")
+                        .post(USERS)
+                        .header("Request-Id", "#{requestId}")
+                        .body(StringBody("{\"email\":\"#{email}\",\"password\":\"password123\",\"name\":\"Load Test\"}"))
+                        .check(status().in(201, 409), jsonPath("$.id").optional().saveAs("userId"))));
+    }
+
+    /**
+     * Sends the same project addition a number of times with one Request-Id.
+     */
+    static ChainBuilder retriedAddProjectToUser(int attempts) {
+        return exec(session -> session.set("projectRequestId", UUID.randomUUID().toString()))
+                .repeat(attempts).on(
+                        exec(http("addProjectToUser (retried)")
+                                .post(USER + "/projects")
+                                .header("Request-Id", "#{projectRequestId}")
+                                .body(StringBody("{\"id\":\"proj-#{projectRequestId}\",\"name\":\"Load Project\"}"))
+                                .check(status().in(201, 409))));
+    }
+
+    static boolean hasUser(Session session) {
+        return session.contains("userId");
+    }
+
+    private static String uniqueEmail() {
+        return "load-" + UUID.randomUUID() + "@example.com";
+    }
+
+    private static String usersBatch() {
+        return IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> "{\"email\":\"" + uniqueEmail() + "\",\"password\":\"password123\",\"name\":\"Load Test\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String projectsBatch() {
+        return IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> "{\"id\":\"proj-" + UUID.randomUUID() + "\",\"name\":\"Load Project\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.sky.erm.load;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+
+import static com.sky.erm.load.UserRequests.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+
+/**
+ * Sign-up bursts: every virtual user creates a user, changes it and adds projects, with batch creates and
+ * deletes mixed in. Dominated by BCrypt, idempotency bookkeeping and inserts.
+ */
+public class WriteHeavySimulation extends Simulation {
+
+    private static final double USERS_PER_SEC = Double.parseDouble(System.getProperty("usersPerSec", "20"));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 120));
+
+    private final LoadTestEnvironment environment = LoadTestEnvironment.start();
+
+    private final ScenarioBuilder writers = scenario("Write-heavy")
+            .exec(createUser())
+            .exec(addProjectToUser())
+            .exec(updateUser())
+            .randomSwitch().on(
+                    percent(30.0).then(addProjectsToUser()),
+                    percent(10.0).then(createUsers()),
+                    percent(30.0).then(getUserById()),
+                    percent(30.0).then(getUserProjects()))
+            .randomSwitch().on(
+                    percent(50.0).then(deleteUser()));
+
+    {
+        setUp(writers.injectOpen(
+                rampUsersPerSec(1).to(USERS_PER_SEC).during(RAMP),
+                constantUsersPerSec(USERS_PER_SEC).during(DURATION)))
+                .protocols(httpProtocol(environment.baseUrl()))
+                .assertions(releaseGates());
+    }
+
+    @Override
+    public void after() {
+        environment.stop();
+    }
+}
@@ -0,0 +1,62 @@
+package com.sky.erm.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of the composite project key's hashCode and equals, which Hibernate's persistence context and a
+ * user's project set call for every project they hold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserExternalProjectIdBenchmark {
+
+    private static final int PROJECTS = 10_000;
+
+    private UserExternalProjectId id;
+    private UserExternalProjectId equalId;
+    private Set<UserExternalProjectId> ids;
+
+    @Setup
+    public void setUp() {
+        id = new UserExternalProjectId("proj-" + PROJECTS / 2, 1L);
+        // Distinct instance, so equals compares the fields instead of returning on identity
+        equalId = new UserExternalProjectId(new String(id.getProjectId()), 1L);
+        ids = IntStream.range(0, PROJECTS)
+                .mapToObj(i -> new UserExternalProjectId("proj-" + i, 1L))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return id.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOf() {
+        return id.equals(equalId);
+    }
+
+    @Benchmark
+    public boolean containedInProjectSet() {
+        return ids.contains(equalId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sky.erm.mapper;
+
+import com.sky.erm.domain.ErmUser;
+import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.domain.UserExternalProjectId;
+import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of mapping a user with {@code projects} projects to its response, which every uncached
+ * getUserById and every page of getAllUsers pays, and of mapping the same projects one by one as a
+ * project page does.
+ * <p>
+ * The generated mappers are wired by a minimal Spring context, as they are in the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int projects;
+
+    private AnnotationConfigApplicationContext context;
+    private UserMapper userMapper;
+    private ProjectMapper projectMapper;
+    private ErmUser user;
+    private List<UserExternalProject> userProjects;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(UserMapperImpl.class, ProjectMapperImpl.class);
+        userMapper = context.getBean(UserMapper.class);
+        projectMapper = context.getBean(ProjectMapper.class);
+
+        user = new ErmUser();
+        user.setId(1L);
+        user.setEmail("benchmark@example.com");
+        user.setName("benchmark");
+        user.setVersion(0L);
+        userProjects = IntStream.range(0, projects)
+                .mapToObj(i -> new UserExternalProject(new UserExternalProjectId("proj-" + i, 1L), user, "Project " + i))
+                .toList();
+        userProjects.forEach(user::addExternalProject);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDto userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public List<ProjectResponseDto> projectsToDto() {
+        return userProjects.stream().map(projectMapper::toDto).toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.sky.erm.security;
+
+import com.sky.erm.config.SecurityConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of HTTP Basic against bearer token verification. Sample-time mode
+ * reports percentiles, so the p0.99 rows of the JSON result give the p99 latency of each flow.
+ * <p>
+ * The Basic flows use an in-memory user store, so the database lookup the application performs on a
+ * cache miss is not included and the real gap is wider than reported.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final String USERNAME = "tarek";
+    private static final String PASSWORD = "password";
+
+    private AuthenticationProvider basicProvider;
+    private AuthenticationProvider cachedBasicProvider;
+    private AuthenticationProvider bearerTokenProvider;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager(
+                User.withUsername(USERNAME).password(passwordEncoder.encode(PASSWORD)).build());
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        basicProvider = daoProvider;
+        cachedBasicProvider = new CachingAuthenticationProvider(daoProvider, new AuthenticationCache(10_000, Duration.ofMinutes(5)));
+
+        SecurityConfig securityConfig = new SecurityConfig();
+        TokenProperties tokenProperties = new TokenProperties(Duration.ofMinutes(15), Duration.ofHours(6), null, null);
+        TokenKeyRing tokenKeyRing = new TokenKeyRing(tokenProperties);
+        TokenService tokenService = new TokenService(securityConfig.jwtEncoder(tokenKeyRing), tokenKeyRing, tokenProperties);
+        bearerTokenProvider = new JwtAuthenticationProvider(securityConfig.jwtDecoder(tokenKeyRing));
+        accessToken = tokenService.issueToken(basicProvider.authenticate(credentials())).getAccessToken();
+    }
+
+    @Benchmark
+    public Authentication basic() {
+        return basicProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication basicWithAuthenticationCache() {
+        return cachedBasicProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication bearerToken() {
+        return bearerTokenProvider.authenticate(new BearerTokenAuthenticationToken(accessToken));
+    }
+
+    private static Authentication credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sky.erm.security;
+
+import com.sky.erm.config.SecurityConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of verifying a password, which every uncached login and every sign-up pays, for each
+ * BCrypt strength worth considering and for PBKDF2. Use it to pick erm.security.password settings that
+ * fit the login CPU budget of a deployment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    @Param({"bcrypt:10", "bcrypt:11", "bcrypt:12", "bcrypt:13", "bcrypt:14", "pbkdf2@SpringSecurity_v5_8:10"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String storedPassword;
+
+    @Setup
+    public void setUp() {
+        int separator = encoder.lastIndexOf(':');
+        passwordEncoder = new SecurityConfig().passwordEncoder(new PasswordProperties(
+                encoder.substring(0, separator), Integer.parseInt(encoder.substring(separator + 1))));
+        storedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return passwordEncoder.matches(PASSWORD, storedPassword);
+    }
+}
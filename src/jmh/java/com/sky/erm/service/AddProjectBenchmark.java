@@ -0,0 +1,114 @@
+package com.sky.erm.service;
+
+import com.sky.erm.ErmApplication;
+import com.sky.erm.domain.ErmUser;
+import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.domain.UserExternalProjectId;
+import com.sky.erm.mapper.ProjectMapper;
+import com.sky.erm.model.CreateProjectRequestDto;
+import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.repository.UserExternalProjectRepository;
+import com.sky.erm.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of adding one project to a user who already has {@code existingProjects} projects, on the
+ * in-memory H2 database of the local profile.
+ * <p>
+ * {@code addProject} is the service path, which persists the project against a reference to the user.
+ * {@code addProjectThroughCollection} is the previous approach of adding it to the loaded user's project
+ * set and saving the user, kept as a baseline; its cost grows with the size of the collection.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AddProjectBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int existingProjects;
+
+    private final AtomicLong projectSequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private ProjectMapper projectMapper;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ErmApplication.class)
+                .profiles("local")
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        projectMapper = context.getBean(ProjectMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        ErmUser user = new ErmUser();
+        user.setEmail("benchmark@example.com");
+        user.setName("benchmark");
+        user.setPassword("not-used");
+        userId = userRepository.saveAndFlush(user).getId();
+
+        ErmUser reference = userRepository.getReferenceById(userId);
+        List<UserExternalProject> projects = IntStream.range(0, existingProjects)
+                .mapToObj(i -> new UserExternalProject(new UserExternalProjectId("existing-" + i, userId), reference, "Existing " + i))
+                .toList();
+        transactionTemplate.executeWithoutResult(status ->
+                context.getBean(UserExternalProjectRepository.class).insertIgnoringDuplicates(projects));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProjectResponseDto addProject() {
+        return userService.addProjectToUser(userId, nextProject());
+    }
+
+    @Benchmark
+    public void addProjectThroughCollection() {
+        CreateProjectRequestDto createProjectRequestDto = nextProject();
+        transactionTemplate.executeWithoutResult(status -> {
+            ErmUser user = userRepository.findById(userId).orElseThrow();
+            UserExternalProject project = projectMapper.toEntity(createProjectRequestDto, user);
+            user.addExternalProject(project);
+            userRepository.save(user);
+        });
+    }
+
+    private CreateProjectRequestDto nextProject() {
+        CreateProjectRequestDto createProjectRequestDto = new CreateProjectRequestDto();
+        createProjectRequestDto.setId("benchmark-" + projectSequence.incrementAndGet());
+        createProjectRequestDto.setName("Benchmark project");
+        return createProjectRequestDto;
+    }
+}
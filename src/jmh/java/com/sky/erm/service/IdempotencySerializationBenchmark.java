@@ -0,0 +1,75 @@
+package com.sky.erm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of storing a response for idempotent replay and of replaying it, for a user response with
+ * {@code projects} projects. One project stays below the compression threshold of
+ * {@link IdempotencyService}, so that row measures the uncompressed path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdempotencySerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int projects;
+
+    private ObjectMapper objectMapper;
+    private UserResponseDto response;
+    private byte[] storedBody;
+    private String contentEncoding;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = new UserResponseDto();
+        response.setId(1L);
+        response.setEmail("benchmark@example.com");
+        response.setVersion(0L);
+        response.setProjects(IntStream.range(0, projects)
+                .mapToObj(i -> {
+                    ProjectResponseDto project = new ProjectResponseDto();
+                    project.setId("proj-" + i);
+                    project.setName("Project " + i);
+                    return project;
+                })
+                .toList());
+        storedBody = store();
+        contentEncoding = objectMapper.writeValueAsBytes(response).length >= IdempotencyService.COMPRESSION_THRESHOLD_BYTES
+                ? IdempotencyService.GZIP_ENCODING
+                : null;
+    }
+
+    @Benchmark
+    public byte[] store() throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        return body.length >= IdempotencyService.COMPRESSION_THRESHOLD_BYTES ? IdempotencyService.gzip(body) : body;
+    }
+
+    @Benchmark
+    public byte[] replay() {
+        return IdempotencyService.decode(storedBody, contentEncoding);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sky.erm.api;
+
+import com.sky.erm.model.TokenResponseDto;
+import com.sky.erm.security.TokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class AuthController implements AuthApi {
+
+    private final TokenService tokenService;
+
+    @Override
+    public ResponseEntity<TokenResponseDto> issueToken() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        log.info("Issuing bearer token for user: {}", authentication.getName());
+        return ResponseEntity.ok(tokenService.issueToken(authentication));
+    }
+}
@@ -1,24 +1,40 @@
 package com.sky.erm.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.erm.model.BatchAddProjectsResponseDto;
+import com.sky.erm.model.BatchCreateUsersResponseDto;
 import com.sky.erm.model.CreateProjectRequestDto;
 import com.sky.erm.model.CreateUserRequestDto;
+import com.sky.erm.model.ProjectPageResponseDto;
 import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserPageResponseDto;
 import com.sky.erm.model.UserResponseDto;
 import com.sky.erm.model.UpdateUserRequestDto;
 import com.sky.erm.service.IdempotencyService;
+import com.sky.erm.service.PasswordHashingService;
 import com.sky.erm.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
@@ -30,24 +46,34 @@ public class UserController implements UsersApi {
 
     private final UserService userService;
     private final IdempotencyService idempotencyService;
+    private final PasswordHashingService passwordHashingService;
     private final HttpServletRequest request;
+    private final ObjectMapper objectMapper;
 
     @Override
     public ResponseEntity<ProjectResponseDto> addProjectToUser(Long userId, @RequestHeader(value = "Request-Id", required = true) String requestId, CreateProjectRequestDto createProjectRequestDto) {
-        return idempotencyService.processIdempotentRequest(
-                requestId,
-                request.getRequestURI(),
-                () -> new ResponseEntity<>(userService.addProjectToUser(userId, createProjectRequestDto), CREATED)
-        );
+        return idempotent(requestId, () -> new ResponseEntity<>(userService.addProjectToUser(userId, createProjectRequestDto), CREATED));
+    }
+
+    @Override
+    public ResponseEntity<BatchAddProjectsResponseDto> addProjectsToUser(Long userId, @RequestHeader(value = "Request-Id", required = true) String requestId, List<CreateProjectRequestDto> createProjectRequestDtos) {
+        return idempotent(requestId, () -> new ResponseEntity<>(userService.addProjectsToUser(userId, createProjectRequestDtos), OK));
     }
 
     @Override
     public ResponseEntity<UserResponseDto> createUser(@RequestHeader(value = "Request-Id", required = true) String requestId, CreateUserRequestDto createUserRequestDto) {
-        return idempotencyService.processIdempotentRequest(
-                requestId,
-                request.getRequestURI(),
-                () -> new ResponseEntity<>(userService.createUser(createUserRequestDto), CREATED)
-        );
+        return idempotent(requestId,
+                () -> passwordHashingService.hash(createUserRequestDto.getPassword()),
+                passwordHash -> new ResponseEntity<>(userService.createUser(createUserRequestDto, passwordHash), CREATED));
+    }
+
+    @Override
+    public ResponseEntity<BatchCreateUsersResponseDto> createUsers(@RequestHeader(value = "Request-Id", required = true) String requestId, List<CreateUserRequestDto> createUserRequestDtos) {
+        return idempotent(requestId,
+                // BCrypt dominates the cost of each user, so hash the whole batch across the hashing threads. Duplicate
+                // emails are only found inside the transaction, so their passwords are hashed too.
+                () -> passwordHashingService.hashAll(createUserRequestDtos.stream().map(CreateUserRequestDto::getPassword).toList()),
+                passwordHashes -> new ResponseEntity<>(userService.createUsers(createUserRequestDtos, passwordHashes), OK));
     }
 
     @Override
@@ -58,30 +84,95 @@ public class UserController implements UsersApi {
     }
 
     @Override
-    public ResponseEntity<List<UserResponseDto>> getAllUsers() {
-        log.info("Retrieving all users");
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<UserPageResponseDto> getAllUsers(Integer limit, Long after) {
+        log.info("Retrieving up to {} users after ID: {}", limit, after);
+        return ResponseEntity.ok(userService.getAllUsers(limit, after));
+    }
+
+    /**
+     * Streams every user as newline-delimited JSON, reading the table in keyset chunks and writing each
+     * row as it is mapped so memory use does not depend on the size of the table.
+     */
+    @GetMapping(value = "/api/v1/users:stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Streaming all users");
+        StreamingResponseBody body = outputStream -> userService.streamAllUsers(user -> writeLine(outputStream, user));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Override
     public ResponseEntity<UserResponseDto> getUserById(Long userId) {
         log.info("Retrieving user with ID: {}", userId);
-        return ResponseEntity.ok(userService.getUserById(userId));
+        String eTag = eTag(userService.getUserVersion(userId));
+        if (isNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        UserResponseDto user = userService.getUserById(userId);
+        return ResponseEntity.ok().eTag(eTag(user.getVersion())).body(user);
     }
 
     @Override
-    public ResponseEntity<List<ProjectResponseDto>> getUserProjects(Long userId) {
-        log.info("Retrieving projects for user with ID: {}", userId);
-        return ResponseEntity.ok(userService.getUserProjects(userId));
+    public ResponseEntity<ProjectPageResponseDto> getUserProjects(Long userId, Integer limit, String after, String namePrefix) {
+        log.info("Retrieving up to {} projects for user with ID: {} after: {}", limit, userId, after);
+        // Read before the page, so a project added meanwhile can only make the ETag stale, never ahead
+        String eTag = eTag(userService.getUserVersion(userId));
+        if (isNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).body(userService.getUserProjects(userId, limit, after, namePrefix));
     }
 
     @Override
     public ResponseEntity<UserResponseDto> updateUser(Long userId, @RequestHeader(value = "Request-Id", required = true) String requestId, UpdateUserRequestDto updateUserRequestDto) {
-        return idempotencyService.processIdempotentRequest(
-                requestId,
-                request.getRequestURI(),
-                () -> new ResponseEntity<>(userService.updateUser(userId, updateUserRequestDto), OK)
-        );
+        return idempotent(requestId,
+                () -> updateUserRequestDto.getPassword() != null ? passwordHashingService.hash(updateUserRequestDto.getPassword()) : null,
+                passwordHash -> new ResponseEntity<>(userService.updateUser(userId, updateUserRequestDto, passwordHash), OK));
+    }
+
+    /**
+     * The generated {@link UsersApi} fixes each method's body type, but a replayed response carries the
+     * stored JSON as a {@code byte[]}. Spring MVC writes the body by its runtime type, so the declared type
+     * is only narrowed here, on the way back to the framework, and nothing in this class reads the body.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> idempotent(String requestId, Supplier<ResponseEntity<T>> operation) {
+        return (ResponseEntity<T>) idempotencyService.processIdempotentRequest(requestId, request.getRequestURI(), operation);
+    }
+
+    /**
+     * Runs {@code prepare} outside the request's transaction, so a password waiting for a hashing thread
+     * does not hold a pooled connection that cheap reads need.
+     */
+    @SuppressWarnings("unchecked")
+    private <P, T> ResponseEntity<T> idempotent(String requestId, Supplier<P> prepare, Function<P, ResponseEntity<T>> operation) {
+        return (ResponseEntity<T>) idempotencyService.processIdempotentRequest(requestId, request.getRequestURI(), prepare, operation);
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Checks If-None-Match against the current ETag before the representation is loaded, so an
+     * unchanged resource costs a single version lookup.
+     */
+    private boolean isNotModified(String eTag) {
+        return new ServletWebRequest(request).checkNotModified(eTag);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    private void writeLine(OutputStream outputStream, UserResponseDto user) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(user));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
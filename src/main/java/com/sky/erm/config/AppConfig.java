@@ -1,7 +1,10 @@
 package com.sky.erm.config;
 
+import com.sky.erm.service.IdempotencyCleanupProperties;
+import com.sky.erm.service.PasswordHashingProperties;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
@@ -9,5 +12,6 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @EnableJpaRepositories(basePackages = "com.sky.erm.repository")
 @EntityScan(basePackages = "com.sky.erm.domain")
 @EnableAutoConfiguration
+@EnableConfigurationProperties({IdempotencyCleanupProperties.class, PasswordHashingProperties.class})
 public class AppConfig {
 }
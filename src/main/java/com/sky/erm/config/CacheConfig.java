@@ -0,0 +1,69 @@
+package com.sky.erm.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sky.erm.mapper.UserMapper;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.service.PostgresUserCacheInvalidator;
+import com.sky.erm.service.UserCacheInvalidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Caffeine caches with statistics enabled, so Actuator publishes hit, miss, load and eviction metrics
+     * for them. Evictions and puts made inside a transaction are applied only after it commits, which
+     * keeps an update's own reads from caching its uncommitted state. {@link UsersCaffeineCache} drops a
+     * concurrent read that loaded the old state before the update committed.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${erm.cache.users.maximum-size:10000}") long maximumSize,
+                                     @Value("${erm.cache.users.ttl:10m}") Duration ttl,
+                                     UserMapper userMapper) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_CACHE) {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new UsersCaffeineCache(name, cache, isAllowNullValues(), userMapper);
+            }
+        };
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "erm.cache.invalidation.enabled", havingValue = "true")
+    public PostgresUserCacheInvalidator postgresUserCacheInvalidator(JdbcTemplate jdbcTemplate,
+                                                                     CacheManager cacheManager,
+                                                                     AuthenticationCache authenticationCache,
+                                                                     DataSourceProperties dataSourceProperties) {
+        return new PostgresUserCacheInvalidator(jdbcTemplate, cacheManager.getCache(USERS_CACHE), authenticationCache,
+                dataSourceProperties);
+    }
+
+    // A single instance has no other caches to invalidate
+    @Bean
+    @ConditionalOnMissingBean(UserCacheInvalidator.class)
+    public UserCacheInvalidator localUserCacheInvalidator() {
+        return (userId, username) -> {
+        };
+    }
+}
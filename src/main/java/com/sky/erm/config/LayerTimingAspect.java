@@ -0,0 +1,113 @@
+package com.sky.erm.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call into the controller, service, mapper and repository layers under a single
+ * {@value #METRIC_NAME} timer, tagged with the layer, class, method and outcome. Each call records its
+ * exclusive time: the time spent in the layers it called is subtracted, so the layer timers of a request
+ * add up to the duration of its controller call and a dashboard can break that down by layer.
+ * <p>
+ * Runs outside the transaction and cache advice, so service timings include commits and cache hits.
+ * The controller of a streaming endpoint returns before its {@code StreamingResponseBody} writes
+ * anything; the calls made while writing are timed on the thread that runs it, without a controller call.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LayerTimingAspect {
+
+    static final String METRIC_NAME = "app.layer.duration";
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<LayerCall> currentCall = new ThreadLocal<>();
+
+    public LayerTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.sky.erm.api..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("controller", joinPoint.getTarget().getClass().getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(public * com.sky.erm.service.UserService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service", joinPoint.getTarget().getClass().getSimpleName(), joinPoint);
+    }
+
+    @Around("within(com.sky.erm.mapper..*) && execution(public * *(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("mapper", joinPoint.getTarget().getClass().getSimpleName(), joinPoint);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("repository", repositoryName(joinPoint.getTarget()), joinPoint);
+    }
+
+    private Object time(String layer, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        LayerCall outerCall = currentCall.get();
+        // Calls within the layer already being timed, such as UserMapper mapping each project through
+        // ProjectMapper, are part of the outer call's own time
+        if (outerCall != null && outerCall.layer.equals(layer)) {
+            return joinPoint.proceed();
+        }
+        LayerCall call = new LayerCall(layer);
+        currentCall.set(call);
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (outerCall == null) {
+                currentCall.remove();
+            } else {
+                currentCall.set(outerCall);
+                outerCall.nestedNanos += elapsed;
+            }
+            Timer.builder(METRIC_NAME)
+                    .description("Time spent in each call into an application layer, excluding the layers it called")
+                    .tag("layer", layer)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", "none".equals(exception) ? "success" : "error")
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(elapsed - call.nestedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Spring Data repositories are proxies, so name them after the application interface they implement.
+     */
+    private static String repositoryName(Object repository) {
+        for (Class<?> repositoryInterface : repository.getClass().getInterfaces()) {
+            if (repositoryInterface.getPackageName().startsWith("com.sky.erm")) {
+                return repositoryInterface.getSimpleName();
+            }
+        }
+        return repository.getClass().getSimpleName();
+    }
+
+    private static final class LayerCall {
+
+        private final String layer;
+        private long nestedNanos;
+
+        private LayerCall(String layer) {
+            this.layer = layer;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.sky.erm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replica settings, used when {@code erm.datasource.replicas.enabled} is true. Replica pools
+ * otherwise take their settings from {@code spring.datasource}.
+ *
+ * @param urls              JDBC URLs of the replicas; read-only transactions are spread over the healthy ones
+ * @param username          replica user, the primary's when not set
+ * @param password          replica password, the primary's when not set
+ * @param maximumPoolSize   connections per replica
+ * @param connectionTimeout wait for a replica connection before the transaction falls back to the primary
+ * @param maxLag            replication lag beyond which a replica stops serving reads until it catches up
+ * @param checkInterval     delay between replica health and lag checks
+ */
+@ConfigurationProperties(prefix = "erm.datasource.replicas")
+public record ReplicaProperties(
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue("1s") Duration connectionTimeout,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("5s") Duration checkInterval) {
+}
@@ -0,0 +1,141 @@
+package com.sky.erm.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to the read replicas in turn, skipping any that failed their last health check
+ * or lag further behind the primary than the tolerance, and falls back to the primary when none is left.
+ * <p>
+ * Replicas start out unhealthy and serve reads from their first successful check on, so a replica that
+ * is down at startup only costs the primary some extra reads.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Zero when the replica has replayed everything it received, since the last replay timestamp
+    // keeps ageing while the primary is idle
+    static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END""";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Counter fallbackCounter;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.fallbackCounter = Counter.builder("app.datasource.replica.fallback")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("app.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the replica at its last check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("app.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is serving reads")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int first = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(first + i, replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, taking it out of rotation: {}", replica.name, e.getMessage());
+                replica.healthy = false;
+            }
+        }
+        fallbackCounter.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${erm.datasource.replicas.check-interval:PT5S}")
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void check(Replica replica) {
+        boolean wasHealthy = replica.healthy;
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            resultSet.next();
+            double lagSeconds = resultSet.getDouble(1);
+            // No replay timestamp yet means the lag is unknown
+            replica.lagSeconds = resultSet.wasNull() ? Double.NaN : lagSeconds;
+            replica.healthy = !resultSet.wasNull() && lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (SQLException e) {
+            replica.lagSeconds = Double.NaN;
+            replica.healthy = false;
+            if (wasHealthy) {
+                log.warn("Health check of replica {} failed: {}", replica.name, e.getMessage());
+            }
+        }
+        if (replica.healthy != wasHealthy) {
+            log.info("Replica {} {} serving reads (lag {}s)", replica.name, replica.healthy ? "is" : "stopped",
+                    replica.lagSeconds);
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sky.erm.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open, so
+ * {@link StatementCountFilter} can report how many statements each request issued.
+ * <p>
+ * Statements sent through {@code JdbcTemplate}, such as the batch project insert, bypass Hibernate
+ * and are not counted.
+ */
+public class RequestStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Closes the count opened on this thread and returns the statements prepared since.
+     */
+    public int stop() {
+        int[] statements = count.get();
+        count.remove();
+        return statements == null ? 0 : statements[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = count.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+}
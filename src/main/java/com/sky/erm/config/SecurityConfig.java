@@ -1,43 +1,106 @@
 package com.sky.erm.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.security.CachingAuthenticationProvider;
+import com.sky.erm.security.PasswordProperties;
+import com.sky.erm.security.TokenKeyRing;
+import com.sky.erm.security.TokenProperties;
+import com.sky.erm.security.TokenService;
 import com.sky.erm.service.UserService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.Customizer;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({TokenProperties.class, PasswordProperties.class})
 public class SecurityConfig {
 
+    static final String BCRYPT_ENCODER_ID = "bcrypt";
+    static final String PBKDF2_ENCODER_ID = "pbkdf2@SpringSecurity_v5_8";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Streamed responses were authorized on the initial dispatch
                 .requestMatchers("/actuator/**").permitAll()          // Allow unrestricted access to actuator endpoints
+                .requestMatchers("/api/v1/auth/token").access((authentication, context) ->
+                        new AuthorizationDecision(authentication.get() instanceof UsernamePasswordAuthenticationToken)) // Only credentials can mint tokens
                 .requestMatchers("/api/v1/**").authenticated() // Require authentication for API endpoints
                 .anyRequest().authenticated()                        // Require authentication for any other request
             )
             .httpBasic(Customizer.withDefaults())
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults())) // Verify bearer tokens in memory
             .csrf(csrf -> csrf.disable()); // Disable CSRF for stateless APIs
         return http.build();
     }
 
+    /**
+     * Prefixes new hashes with the ID of the configured encoder. Hashes stored before the prefix was
+     * introduced are plain BCrypt and are verified as such.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordProperties passwordProperties) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordProperties.bcryptStrength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT_ENCODER_ID, bcrypt,
+                PBKDF2_ENCODER_ID, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(passwordProperties.encoder())) {
+            throw new IllegalStateException("Unsupported password encoder: " + passwordProperties.encoder()
+                    + ", expected one of " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordProperties.encoder(), encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(UserService userDetailsService) {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);        
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+    public AuthenticationProvider authenticationProvider(UserService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-encodes hashes made with an older encoder or a lower strength after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        return new CachingAuthenticationProvider(authProvider, authenticationCache);
     }
-}
 
+    @Bean
+    public JwtEncoder jwtEncoder(TokenKeyRing tokenKeyRing) {
+        return new NimbusJwtEncoder(tokenKeyRing);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(TokenKeyRing tokenKeyRing) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.HS256, tokenKeyRing));
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(TokenService.ISSUER));
+        return jwtDecoder;
+    }
+}
@@ -0,0 +1,83 @@
+package com.sky.erm.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sky.erm.mapper.UserMapper;
+import com.sky.erm.model.UserResponseDto;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caffeine cache of users that copies them on the way in and out, so callers never share the cached
+ * instance, and that drops a loaded value when an invalidation ran while it was being loaded.
+ * <p>
+ * A load that read the old row before an update committed must not be served after the update's
+ * eviction until the TTL expires. As in the authentication cache, every eviction bumps a counter, and a
+ * load that sees it change removes its own entry rather than relying on how the eviction and the put are
+ * ordered. This also drops loads of other users in flight at the time; they are loaded again on their
+ * next read.
+ */
+class UsersCaffeineCache extends CaffeineCache {
+
+    private final UserMapper userMapper;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    UsersCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues, UserMapper userMapper) {
+        super(name, cache, allowNullValues);
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long stamp = invalidations.get();
+        boolean[] loaded = new boolean[1];
+        T value = super.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        // An invalidation between the load and the put may have run its eviction before the put
+        if (loaded[0] && invalidations.get() != stamp) {
+            getNativeCache().invalidate(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidations.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidations.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        invalidations.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        invalidations.incrementAndGet();
+        return super.invalidate();
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(copy(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return copy(super.fromStoreValue(storeValue));
+    }
+
+    private Object copy(Object value) {
+        return value instanceof UserResponseDto user ? userMapper.copy(user) : value;
+    }
+}
@@ -10,15 +10,23 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_user")
+@Table(
+        name = "tb_user",
+        uniqueConstraints = @UniqueConstraint(name = ErmUser.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "ix_tb_user_name", columnList = "name")
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ErmUser {
+
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "ux_tb_user_email";
     
+    // A pooled sequence reserves IDs 50 at a time, which lets Hibernate batch inserts (IDENTITY cannot)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_user_id_seq")
+    @SequenceGenerator(name = "tb_user_id_seq", sequenceName = "tb_user_id_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
     
@@ -30,6 +38,11 @@ public class ErmUser {
     
     @Column(name = "name", length = 120)
     private String name;
+
+    // Also bumped when the user's projects change, so it identifies the whole representation (the ETag)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
     
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserExternalProject> externalProjects = new HashSet<>();
@@ -2,12 +2,15 @@ package com.sky.erm.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.OffsetDateTime;
 
 @Entity
 @Data
-@Table(name = "idempotency_record")
+@Table(name = "idempotency_record",
+        indexes = @Index(name = "ix_idempotency_record_expires_at", columnList = "expires_at"))
 public class IdempotencyRecord {
     @Id
     private String key;
@@ -15,11 +18,24 @@ public class IdempotencyRecord {
     @Column(nullable = false)
     private String path;
 
-    @Lob
-    @Column(nullable = false)
-    private String responseBody;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    // Serialized response as written to the client, gzip-compressed when contentEncoding says so.
+    // BYTEA on PostgreSQL as in V5, which ignores the length; the length only sizes the H2 column, and
+    // anything above H2's VARBINARY limit of 1 MiB would turn it into a BLOB, which H2 rejects in
+    // PostgreSQL mode
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(length = 1024 * 1024)
+    private byte[] responseBody;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(length = 20)
+    private String contentEncoding;
 
-    @Column(nullable = false)
     private Integer statusCode;
 
     @Column(nullable = false)
@@ -27,4 +43,4 @@ public class IdempotencyRecord {
 
     @Column(nullable = false)
     private OffsetDateTime expiresAt;
-} 
\ No newline at end of file
+} 
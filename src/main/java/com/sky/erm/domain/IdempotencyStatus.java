@@ -0,0 +1,6 @@
+package com.sky.erm.domain;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
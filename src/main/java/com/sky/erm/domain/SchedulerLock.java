@@ -0,0 +1,21 @@
+package com.sky.erm.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Data
+@Table(name = "scheduler_lock")
+public class SchedulerLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private String lockedBy;
+
+    @Column(nullable = false)
+    private OffsetDateTime lockedUntil;
+}
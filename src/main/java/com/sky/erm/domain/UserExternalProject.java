@@ -1,18 +1,21 @@
 package com.sky.erm.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 @Entity
-@Table(name = "tb_user_external_project")
+@Table(
+        name = "tb_user_external_project",
+        indexes = @Index(name = "ix_tb_user_external_project_user_id_id", columnList = "user_id, id")
+)
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-public class UserExternalProject {
+public class UserExternalProject implements Persistable<UserExternalProjectId> {
     
     @EmbeddedId
     private UserExternalProjectId id;
@@ -24,4 +27,27 @@ public class UserExternalProject {
     
     @Column(name = "name", nullable = false, length = 120)
     private String name;
-} 
\ No newline at end of file
+
+    // The ID is assigned, so without this save() would merge and select the row before inserting it
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    public UserExternalProject(UserExternalProjectId id, ErmUser user, String name) {
+        this.id = id;
+        this.user = user;
+        this.name = name;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+} 
@@ -0,0 +1,7 @@
+package com.sky.erm.exception;
+
+public class ConcurrentUpdateException extends BusinessException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
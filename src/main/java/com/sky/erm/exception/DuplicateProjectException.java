@@ -0,0 +1,7 @@
+package com.sky.erm.exception;
+
+public class DuplicateProjectException extends BusinessException {
+    public DuplicateProjectException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,8 @@ import com.sky.erm.model.ErrorResponseDto;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -63,6 +66,68 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(DuplicateProjectException.class)
+    public ResponseEntity<ErrorResponseDto> handleDuplicateProjectException(
+            DuplicateProjectException ex,
+            HttpServletRequest request) {
+        log.warn("Duplicate project attempt: {}, Path: {}", ex.getMessage(), request.getRequestURI());
+        ErrorResponseDto errorResponse = new ErrorResponseDto();
+        errorResponse.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        errorResponse.setStatus(HttpStatus.CONFLICT.value());
+        errorResponse.setError(HttpStatus.CONFLICT.getReasonPhrase());
+        errorResponse.setMessage(ex.getMessage());
+        errorResponse.setPath(request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler({ConcurrentUpdateException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponseDto> handleConcurrentUpdate(
+            RuntimeException ex,
+            HttpServletRequest request) {
+        log.warn("Concurrent update: {}, Path: {}", ex.getMessage(), request.getRequestURI());
+        ErrorResponseDto errorResponse = new ErrorResponseDto();
+        errorResponse.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        errorResponse.setStatus(HttpStatus.CONFLICT.value());
+        errorResponse.setError(HttpStatus.CONFLICT.getReasonPhrase());
+        errorResponse.setMessage(ex instanceof ConcurrentUpdateException
+                ? ex.getMessage()
+                : "The resource was modified concurrently, please retry");
+        errorResponse.setPath(request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponseDto> handlePasswordHashingUnavailable(
+            PasswordHashingUnavailableException ex,
+            HttpServletRequest request) {
+        log.warn("Password hashing unavailable: {}, Path: {}", ex.getMessage(), request.getRequestURI());
+        ErrorResponseDto errorResponse = new ErrorResponseDto();
+        errorResponse.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        errorResponse.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.setError(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        errorResponse.setMessage(ex.getMessage());
+        errorResponse.setPath(request.getRequestURI());
+        // Retry-After is in whole seconds, so round up rather than tell clients to retry immediately
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponseDto> handleIdempotencyConflictException(
+            IdempotencyConflictException ex,
+            HttpServletRequest request) {
+        log.warn("Idempotency conflict: {}, Path: {}", ex.getMessage(), request.getRequestURI());
+        ErrorResponseDto errorResponse = new ErrorResponseDto();
+        errorResponse.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        errorResponse.setStatus(HttpStatus.CONFLICT.value());
+        errorResponse.setError(HttpStatus.CONFLICT.getReasonPhrase());
+        errorResponse.setMessage(ex.getMessage());
+        errorResponse.setPath(request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponseDto> handleValidationException(
             MethodArgumentNotValidException ex,
@@ -104,6 +169,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponseDto> handleHandlerMethodValidationException(
+            HandlerMethodValidationException ex,
+            HttpServletRequest request) {
+        List<String> details = ex.getParameterValidationResults()
+                .stream()
+                .flatMap(result -> result.getResolvableErrors().stream()
+                        .map(error -> result.getMethodParameter().getParameterName() + ": " + error.getDefaultMessage()))
+                .collect(Collectors.toList());
+
+        log.debug("Parameter validation failed: {}, Path: {}", details, request.getRequestURI());
+        ErrorResponseDto errorResponse = new ErrorResponseDto();
+        errorResponse.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        errorResponse.setStatus(HttpStatus.BAD_REQUEST.value());
+        errorResponse.setError(HttpStatus.BAD_REQUEST.getReasonPhrase());
+        errorResponse.setMessage("Validation failed");
+        errorResponse.setPath(request.getRequestURI());
+        errorResponse.setDetails(details);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGenericException(
             Exception ex,
@@ -0,0 +1,7 @@
+package com.sky.erm.exception;
+
+public class IdempotencyConflictException extends BusinessException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+} 
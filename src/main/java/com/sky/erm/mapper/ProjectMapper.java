@@ -7,6 +7,8 @@ import com.sky.erm.model.CreateProjectRequestDto;
 import com.sky.erm.model.ProjectResponseDto;
 import org.mapstruct.*;
 
+import java.util.List;
+
 @Mapper(
         componentModel = "spring",
         unmappedTargetPolicy = ReportingPolicy.IGNORE
@@ -25,6 +27,10 @@ public interface ProjectMapper {
     @Mapping(target = "user", ignore = true)
     void updateEntity(@MappingTarget UserExternalProject entity, CreateProjectRequestDto dto);
 
+    ProjectResponseDto copy(ProjectResponseDto dto);
+
+    List<ProjectResponseDto> copy(List<ProjectResponseDto> dtos);
+
     @Named("createUserExternalProjectId")
     default UserExternalProjectId createId(String projectId, Long userId) {
         return new UserExternalProjectId(projectId, userId);
@@ -19,6 +19,11 @@ public interface UserMapper {
     @Mapping(target = "projects", source = "externalProjects")
     UserResponseDto toDto(ErmUser entity);
     
+    /**
+     * Deep copy, so a cached response can be handed out without callers sharing, or changing, the cached instance.
+     */
+    UserResponseDto copy(UserResponseDto dto);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "externalProjects", ignore = true)
     void updateEntity(@MappingTarget ErmUser entity, CreateUserRequestDto dto);
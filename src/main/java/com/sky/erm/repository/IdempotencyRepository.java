@@ -1,17 +1,69 @@
 package com.sky.erm.repository;
 
 import com.sky.erm.domain.IdempotencyRecord;
+import com.sky.erm.domain.IdempotencyStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 
 @Repository
 public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, String> {
     
+    /**
+     * Deletes up to {@code batchSize} records that expired before {@code now}, oldest first.
+     *
+     * @return the number of records deleted
+     */
     @Modifying
-    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
-    void deleteExpiredRecords(OffsetDateTime now);
-} 
\ No newline at end of file
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_record WHERE \"key\" IN (" +
+            "SELECT \"key\" FROM idempotency_record WHERE expires_at < :now ORDER BY expires_at LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") OffsetDateTime now, @Param("batchSize") int batchSize);
+
+    /**
+     * Atomically reserves the key as IN_PROGRESS and commits straight away so concurrent duplicates see it.
+     *
+     * @return 1 if the key was claimed, 0 if a record already exists
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO idempotency_record (\"key\", path, status, created_at, expires_at) " +
+            "VALUES (:key, :path, 'IN_PROGRESS', :now, :expiresAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("path") String path,
+              @Param("now") OffsetDateTime now,
+              @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+            "WHERE r.key = :key AND r.path = :path AND r.status = :status AND r.createdAt < :staleBefore")
+    int reclaimStale(@Param("key") String key,
+                     @Param("path") String path,
+                     @Param("status") IdempotencyStatus status,
+                     @Param("now") OffsetDateTime now,
+                     @Param("staleBefore") OffsetDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.responseBody = :responseBody, " +
+            "r.contentType = :contentType, r.contentEncoding = :contentEncoding, r.statusCode = :statusCode " +
+            "WHERE r.key = :key")
+    int complete(@Param("key") String key,
+                 @Param("status") IdempotencyStatus status,
+                 @Param("responseBody") byte[] responseBody,
+                 @Param("contentType") String contentType,
+                 @Param("contentEncoding") String contentEncoding,
+                 @Param("statusCode") Integer statusCode);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.status = :status")
+    int release(@Param("key") String key, @Param("status") IdempotencyStatus status);
+} 
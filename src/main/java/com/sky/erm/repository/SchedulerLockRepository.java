@@ -0,0 +1,55 @@
+package com.sky.erm.repository;
+
+import com.sky.erm.domain.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Creates the lock row already held by the caller.
+     *
+     * @return 1 if the lock was created, 0 if it already exists
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO scheduler_lock (name, locked_by, locked_until) " +
+            "VALUES (:name, :owner, :lockedUntil) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int create(@Param("name") String name,
+               @Param("owner") String owner,
+               @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+    /**
+     * Takes over the lock if its lease has run out.
+     *
+     * @return 1 if the lock was acquired, 0 if another owner still holds it
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE SchedulerLock l SET l.lockedBy = :owner, l.lockedUntil = :lockedUntil " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquireExpired(@Param("name") String name,
+                       @Param("owner") String owner,
+                       @Param("now") OffsetDateTime now,
+                       @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+    /**
+     * Moves the end of the caller's lease to {@code lockedUntil}.
+     *
+     * @return 1 if the lease was updated, 0 if another owner holds the lock
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("lockedUntil") OffsetDateTime lockedUntil);
+}
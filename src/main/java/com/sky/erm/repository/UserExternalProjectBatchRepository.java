@@ -0,0 +1,18 @@
+package com.sky.erm.repository;
+
+import com.sky.erm.domain.UserExternalProject;
+
+import java.util.List;
+
+public interface UserExternalProjectBatchRepository {
+
+    /**
+     * Inserts the projects as JDBC batches straight into the table, bypassing the persistence context
+     * and the owning user's project collection. Rows that already exist are skipped.
+     *
+     * All projects must belong to the same user and have distinct IDs.
+     *
+     * @return whether each project was inserted, in the order given
+     */
+    boolean[] insertIgnoringDuplicates(List<UserExternalProject> projects);
+}
@@ -0,0 +1,53 @@
+package com.sky.erm.repository;
+
+import com.sky.erm.domain.UserExternalProject;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class UserExternalProjectBatchRepositoryImpl implements UserExternalProjectBatchRepository {
+
+    private static final int BATCH_SIZE = 100;
+    private static final String INSERT_SQL =
+            "INSERT INTO tb_user_external_project (id, user_id, name) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean[] insertIgnoringDuplicates(List<UserExternalProject> projects) {
+        // Update counts cannot tell inserted rows from skipped ones: Postgres reports SUCCESS_NO_INFO for
+        // every row of a rewritten batch. The returned keys only contain the rows that were inserted.
+        Set<String> insertedIds = jdbcTemplate.execute(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                (PreparedStatement statement) -> {
+                    Set<String> ids = new HashSet<>();
+                    for (int start = 0; start < projects.size(); start += BATCH_SIZE) {
+                        for (UserExternalProject project : projects.subList(start, Math.min(start + BATCH_SIZE, projects.size()))) {
+                            statement.setString(1, project.getId().getProjectId());
+                            statement.setLong(2, project.getId().getUserId());
+                            statement.setString(3, project.getName());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                ids.add(keys.getString(1));
+                            }
+                        }
+                    }
+                    return ids;
+                });
+
+        boolean[] inserted = new boolean[projects.size()];
+        for (int i = 0; i < projects.size(); i++) {
+            inserted[i] = insertedIds.contains(projects.get(i).getId().getProjectId());
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sky.erm.repository;
+
+import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.domain.UserExternalProjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserExternalProjectRepository
+        extends JpaRepository<UserExternalProject, UserExternalProjectId>, UserExternalProjectBatchRepository {
+
+    @Query("SELECT p.id.projectId FROM UserExternalProject p WHERE p.id.userId = :userId AND p.id.projectId IN :projectIds")
+    List<String> findExistingProjectIds(@Param("userId") Long userId, @Param("projectIds") Collection<String> projectIds);
+
+    /**
+     * Reads a page of a user's projects in project ID order without touching {@code tb_user}.
+     *
+     * @param namePattern LIKE pattern for the name, escaped with a backslash
+     */
+    @Query("SELECT p FROM UserExternalProject p " +
+            "WHERE p.id.userId = :userId AND p.id.projectId > :after AND p.name LIKE :namePattern ESCAPE '\\' " +
+            "ORDER BY p.id.projectId")
+    List<UserExternalProject> findPage(@Param("userId") Long userId,
+                                       @Param("after") String after,
+                                       @Param("namePattern") String namePattern,
+                                       Limit limit);
+}
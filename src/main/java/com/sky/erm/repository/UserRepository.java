@@ -1,11 +1,15 @@
 package com.sky.erm.repository;
 
 import com.sky.erm.domain.ErmUser;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -16,4 +20,35 @@ public interface UserRepository extends JpaRepository<ErmUser, Long> {
     
     @Query("SELECT u FROM ErmUser u LEFT JOIN FETCH u.externalProjects WHERE u.id = :userId")
     Optional<ErmUser> findByIdWithProjects(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT u.id FROM ErmUser u WHERE u.id > :after ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT u FROM ErmUser u LEFT JOIN FETCH u.externalProjects WHERE u.id IN :userIds ORDER BY u.id")
+    List<ErmUser> findAllWithProjectsByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT u.version FROM ErmUser u WHERE u.id = :userId")
+    Optional<Long> findVersionById(@Param("userId") Long userId);
+
+    /**
+     * Bumps the version of a user whose projects changed without loading it.
+     *
+     * @return 1 if the user exists, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE ErmUser u SET u.version = u.version + 1 WHERE u.id = :userId")
+    int incrementVersion(@Param("userId") Long userId);
+
+    /**
+     * Replaces a password hash in place. The version is left alone, as the hash is not part of any
+     * representation and a re-hash must not invalidate ETags or fail concurrent updates.
+     *
+     * @return 1 if the user exists, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE ErmUser u SET u.password = :password WHERE u.id = :userId")
+    int updatePassword(@Param("userId") Long userId, @Param("password") String password);
+
+    @Query("SELECT u.email FROM ErmUser u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+}
@@ -0,0 +1,147 @@
+package com.sky.erm.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of successful authentications so repeated HTTP Basic requests skip the
+ * user lookup and the BCrypt verification.
+ * <p>
+ * Entries are keyed on the username and hold an HMAC of username and password computed with a
+ * per-process random key, so neither the raw password nor a reusable hash of it is ever held in memory.
+ */
+@Slf4j
+@Component
+public class AuthenticationCache implements MeterBinder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String CACHE_NAME = "authentication";
+
+    private final Cache<String, CachedAuthentication> cache;
+    private final SecretKey keyDerivationKey;
+    // Bumped by every invalidation, so an authentication that was checked against the old row can tell
+    // that it must not be cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AuthenticationCache(@Value("${erm.security.auth-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${erm.security.auth-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.keyDerivationKey = generateKey();
+    }
+
+    public Optional<Authentication> get(String username, String password) {
+        CachedAuthentication cached = cache.getIfPresent(username);
+        if (cached == null || !MessageDigest.isEqual(cached.credentials(), credentials(username, password))) {
+            return Optional.empty();
+        }
+        return Optional.of(cached.authentication());
+    }
+
+    /**
+     * Marks the start of an authentication that may be cached. Pass the result to {@link #put}.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Caches an authentication unless an invalidation happened since {@code stamp} was taken, as the
+     * credentials may then have been verified against a row that has changed since. This also skips
+     * caching logins of other users that were in flight during the invalidation; they are cached on
+     * their next request.
+     */
+    public void put(String username, String password, Authentication authentication, long stamp) {
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        CachedAuthentication cached = new CachedAuthentication(credentials(username, password), authentication);
+        cache.put(username, cached);
+        // An invalidation between the check and the put may have run its eviction before the put
+        if (invalidations.get() != stamp) {
+            cache.asMap().remove(username, cached);
+        }
+    }
+
+    /**
+     * Drops the cached authentication of the given user. When called inside a transaction the eviction
+     * is repeated after commit, and authentications that started before it are not cached, so a login
+     * that verified the old credentials while the change was in flight cannot leave a stale entry behind.
+     */
+    public void invalidate(String username) {
+        evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every cached authentication, for when invalidations sent by other instances may have been missed.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("Evicted all cached authentications");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private void evict(String username) {
+        invalidations.incrementAndGet();
+        cache.invalidate(username);
+        log.debug("Evicted cached authentication for user: {}", username);
+    }
+
+    private byte[] credentials(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(keyDerivationKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive authentication cache key", e);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            return KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise authentication cache key", e);
+        }
+    }
+
+    private record CachedAuthentication(byte[] credentials, Authentication authentication) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.sky.erm.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Decorates an {@link AuthenticationProvider} with the {@link AuthenticationCache}. Only successful
+ * authentications are cached; failures always reach the delegate.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        String password = credentials.toString();
+
+        return authenticationCache.get(username, password)
+                .map(cached -> copyOf(cached, authentication))
+                .orElseGet(() -> {
+                    long stamp = authenticationCache.stamp();
+                    Authentication result = delegate.authenticate(authentication);
+                    if (result != null && result.isAuthenticated()) {
+                        authenticationCache.put(username, password, result, stamp);
+                    }
+                    return result;
+                });
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    // Each request gets its own token so request details never leak between callers
+    private static Authentication copyOf(Authentication cached, Authentication request) {
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                cached.getPrincipal(), null, cached.getAuthorities());
+        token.setDetails(request.getDetails());
+        return token;
+    }
+}
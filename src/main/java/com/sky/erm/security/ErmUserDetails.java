@@ -0,0 +1,21 @@
+package com.sky.erm.security;
+
+import lombok.Getter;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+/**
+ * An authenticated user along with its ID. User names are not unique, so anything written back for
+ * the user, such as a re-encoded password, has to be addressed by the ID.
+ */
+@Getter
+public class ErmUserDetails extends User {
+
+    private final Long id;
+
+    public ErmUserDetails(Long id, String username, String password) {
+        super(username, password, List.of());
+        this.id = id;
+    }
+}
@@ -0,0 +1,17 @@
+package com.sky.erm.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Password storage settings. Raising the strength or switching the encoder takes effect for new hashes
+ * straight away, and existing hashes are re-encoded on their owner's next successful login.
+ *
+ * @param encoder        ID of the encoder new hashes are created with: bcrypt or pbkdf2@SpringSecurity_v5_8
+ * @param bcryptStrength BCrypt log rounds; each increment doubles the CPU cost of every login and sign-up
+ */
+@ConfigurationProperties(prefix = "erm.security.password")
+public record PasswordProperties(
+        @DefaultValue("bcrypt") String encoder,
+        @DefaultValue("10") int bcryptStrength) {
+}
@@ -0,0 +1,112 @@
+package com.sky.erm.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * HMAC keys used to sign and verify bearer tokens.
+ * <p>
+ * When {@code erm.security.token.keys} is set, every listed key verifies tokens and
+ * {@code erm.security.token.active-key-id} signs new ones, so keys are rotated by adding the new key,
+ * switching the active ID and removing the old key once its tokens have expired. Without configured
+ * keys a random key is generated and rotated every {@code rotation-interval}; tokens are then only
+ * accepted by the instance that issued them.
+ */
+@Slf4j
+@Component
+public class TokenKeyRing implements JWKSource<SecurityContext> {
+
+    private static final int MINIMUM_KEY_BYTES = 32;
+
+    private final TokenProperties properties;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile String activeKeyId;
+
+    public TokenKeyRing(TokenProperties properties) {
+        this.properties = properties;
+        if (properties.hasConfiguredKeys()) {
+            loadConfiguredKeys();
+        } else {
+            log.warn("No erm.security.token.keys configured, signing bearer tokens with a generated key");
+            rotateGeneratedKeys();
+        }
+    }
+
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(jwkSet);
+    }
+
+    @Scheduled(fixedDelayString = "${erm.security.token.rotation-interval:PT6H}",
+            initialDelayString = "${erm.security.token.rotation-interval:PT6H}")
+    public void rotateGeneratedKeys() {
+        if (properties.hasConfiguredKeys()) {
+            return;
+        }
+        Instant now = Instant.now();
+        byte[] secret = new byte[MINIMUM_KEY_BYTES];
+        secureRandom.nextBytes(secret);
+        JWK newKey = signingKey(UUID.randomUUID().toString(), secret, now);
+
+        // A retired key may have signed tokens right up to its retirement, so keep it until those expire
+        Instant retainIssuedAfter = now.minus(properties.rotationInterval()).minus(properties.ttl());
+        List<JWK> keys = new ArrayList<>();
+        keys.add(newKey);
+        jwkSet.getKeys().stream()
+                .filter(key -> key.getIssueTime().toInstant().isAfter(retainIssuedAfter))
+                .forEach(keys::add);
+
+        jwkSet = new JWKSet(keys);
+        activeKeyId = newKey.getKeyID();
+        log.info("Rotated bearer token signing key, {} key(s) accepted", keys.size());
+    }
+
+    private void loadConfiguredKeys() {
+        if (properties.activeKeyId() == null || !properties.keys().containsKey(properties.activeKeyId())) {
+            throw new IllegalStateException("erm.security.token.active-key-id must name one of erm.security.token.keys");
+        }
+        Instant now = Instant.now();
+        List<JWK> keys = new ArrayList<>();
+        for (Map.Entry<String, String> entry : properties.keys().entrySet()) {
+            byte[] secret = Base64.getDecoder().decode(entry.getValue());
+            if (secret.length < MINIMUM_KEY_BYTES) {
+                throw new IllegalStateException("Bearer token key " + entry.getKey() + " must be at least 256 bits");
+            }
+            keys.add(signingKey(entry.getKey(), secret, now));
+        }
+        jwkSet = new JWKSet(keys);
+        activeKeyId = properties.activeKeyId();
+    }
+
+    private static JWK signingKey(String keyId, byte[] secret, Instant issuedAt) {
+        return new OctetSequenceKey.Builder(secret)
+                .keyID(keyId)
+                .algorithm(JWSAlgorithm.HS256)
+                .keyUse(KeyUse.SIGNATURE)
+                .issueTime(Date.from(issuedAt))
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.sky.erm.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bearer token settings.
+ *
+ * @param ttl              lifetime of an issued token
+ * @param rotationInterval how often generated signing keys are rotated when no keys are configured
+ * @param activeKeyId      ID of the configured key used to sign new tokens
+ * @param keys             Base64-encoded HMAC secrets (at least 256 bits) by key ID; every key verifies tokens
+ */
+@ConfigurationProperties(prefix = "erm.security.token")
+public record TokenProperties(
+        @DefaultValue("15m") Duration ttl,
+        @DefaultValue("6h") Duration rotationInterval,
+        String activeKeyId,
+        Map<String, String> keys) {
+
+    public boolean hasConfiguredKeys() {
+        return keys != null && !keys.isEmpty();
+    }
+}
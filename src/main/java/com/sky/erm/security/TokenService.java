@@ -0,0 +1,48 @@
+package com.sky.erm.security;
+
+import com.sky.erm.model.TokenResponseDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Issues short-lived, locally signed bearer tokens for callers that have already authenticated
+ * with their username and password.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenService {
+
+    public static final String ISSUER = "erm";
+    private static final String TOKEN_TYPE = "Bearer";
+
+    private final JwtEncoder jwtEncoder;
+    private final TokenKeyRing tokenKeyRing;
+    private final TokenProperties tokenProperties;
+
+    public TokenResponseDto issueToken(Authentication authentication) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(tokenProperties.ttl()))
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256)
+                .keyId(tokenKeyRing.activeKeyId())
+                .build();
+
+        TokenResponseDto response = new TokenResponseDto();
+        response.setAccessToken(jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue());
+        response.setTokenType(TOKEN_TYPE);
+        response.setExpiresIn(tokenProperties.ttl().toSeconds());
+        return response;
+    }
+}
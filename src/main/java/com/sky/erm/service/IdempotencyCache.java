@@ -0,0 +1,67 @@
+package com.sky.erm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sky.erm.domain.IdempotencyRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * In-process near cache of completed idempotency records. Client retries usually arrive within
+ * seconds of the original call, so most replays are answered here without a database round trip.
+ * Each entry expires together with its record.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "idempotency";
+
+    private final Cache<String, IdempotencyRecord> cache;
+
+    public IdempotencyCache(@Value("${erm.idempotency.cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new RecordExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<IdempotencyRecord> get(String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(idempotencyKey));
+    }
+
+    public void put(IdempotencyRecord record) {
+        cache.put(record.getKey(), record);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private static final class RecordExpiry implements Expiry<String, IdempotencyRecord> {
+
+        @Override
+        public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+            return Math.max(0, Duration.between(OffsetDateTime.now(), record.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, record, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
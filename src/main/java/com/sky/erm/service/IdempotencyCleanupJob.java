@@ -0,0 +1,66 @@
+package com.sky.erm.service;
+
+import com.sky.erm.repository.IdempotencyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Deletes expired idempotency records in small batches, each in its own short transaction, with a pause
+ * in between. Runs are frequent so each one only has a few minutes of expiries to remove, and a
+ * scheduler lock held for the whole interval keeps them to one run per interval across all instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyCleanupJob {
+
+    static final String LOCK_NAME = "idempotency-cleanup";
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final MetricsService metricsService;
+    private final IdempotencyCleanupProperties properties;
+
+    @Scheduled(fixedDelayString = "${erm.idempotency.cleanup.interval:PT5M}",
+            initialDelayString = "${erm.idempotency.cleanup.interval:PT5M}")
+    public void cleanupExpiredRecords() {
+        if (!schedulerLockService.tryLock(LOCK_NAME, properties.interval())) {
+            log.debug("Idempotency cleanup is running on another instance");
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        // Stop well within the lease so the lock never expires under a run that is still deleting
+        long deadline = startedAt + properties.interval().toNanos() / 2;
+        int totalDeleted = 0;
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            int deleted;
+            do {
+                deleted = idempotencyRepository.deleteExpiredBatch(now, properties.batchSize());
+                totalDeleted += deleted;
+            } while (deleted == properties.batchSize() && System.nanoTime() < deadline && pause());
+            log.info("Cleaned up {} expired idempotency records", totalDeleted);
+        } catch (Exception e) {
+            log.error("Error cleaning up expired idempotency records after deleting {}", totalDeleted, e);
+        } finally {
+            metricsService.recordIdempotencyCleanup(totalDeleted, Duration.ofNanos(System.nanoTime() - startedAt));
+            schedulerLockService.unlock(LOCK_NAME, properties.interval());
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.pause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
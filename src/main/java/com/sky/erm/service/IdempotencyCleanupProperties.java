@@ -0,0 +1,20 @@
+package com.sky.erm.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Expired idempotency record cleanup settings.
+ *
+ * @param interval  delay between cleanup runs; also the lease that keeps other instances from running concurrently
+ * @param batchSize rows deleted per transaction
+ * @param pause     pause between batches so cleanup never monopolises the table or the connection pool
+ */
+@ConfigurationProperties(prefix = "erm.idempotency.cleanup")
+public record IdempotencyCleanupProperties(
+        @DefaultValue("5m") Duration interval,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("200ms") Duration pause) {
+}
@@ -3,61 +3,120 @@ package com.sky.erm.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sky.erm.domain.IdempotencyRecord;
+import com.sky.erm.domain.IdempotencyStatus;
 import com.sky.erm.exception.BusinessException;
+import com.sky.erm.exception.IdempotencyConflictException;
 import com.sky.erm.repository.IdempotencyRepository;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class IdempotencyService {
 
+    private static final long EXPIRATION_HOURS = 24;
+    // A claim older than this belongs to an attempt that died without completing or releasing it
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+    // Small DTOs don't shrink enough under gzip to pay for the extra CPU on every replay
+    static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+    static final String GZIP_ENCODING = "gzip";
+
     private final IdempotencyRepository idempotencyRepository;
+    private final IdempotencyCache idempotencyCache;
     private final ObjectMapper objectMapper;
-    private static final long EXPIRATION_HOURS = 24;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsService metricsService;
 
-    @Transactional
-    public <T> ResponseEntity<T> processIdempotentRequest(String idempotencyKey, String path, Supplier<ResponseEntity<T>> operation) {
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              IdempotencyCache idempotencyCache,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MetricsService metricsService) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Runs the operation at most once per idempotency key.
+     * <p>
+     * The key is reserved as IN_PROGRESS with a single atomic insert that commits before the operation
+     * starts. Duplicates arriving while it runs are rejected with {@link IdempotencyConflictException};
+     * later duplicates get the stored response, from the {@link IdempotencyCache} when this instance has
+     * seen it. The operation and the stored response commit together, and a failed attempt releases the
+     * key so it can be retried.
+     * <p>
+     * Replayed responses carry the stored bytes as a {@code byte[]} body with the original Content-Type,
+     * so they are written to the client as-is instead of being parsed and rendered again. The body type
+     * therefore differs between the first execution and a replay, which is why it is not declared.
+     */
+    public ResponseEntity<?> processIdempotentRequest(String idempotencyKey, String path, Supplier<? extends ResponseEntity<?>> operation) {
+        return processIdempotentRequest(idempotencyKey, path, () -> null, prepared -> operation.get());
+    }
+
+    /**
+     * Like {@link #processIdempotentRequest(String, String, Supplier)}, but once the key is claimed runs
+     * {@code prepare} before the transaction begins and hands its result to the operation. Slow work that
+     * needs no database, such as hashing a password, belongs there so it does not hold a pooled connection.
+     * A failed preparation releases the key like a failed operation.
+     */
+    public <P> ResponseEntity<?> processIdempotentRequest(String idempotencyKey, String path, Supplier<P> prepare,
+                                                          Function<? super P, ? extends ResponseEntity<?>> operation) {
         try {
-            Optional<IdempotencyRecord> existingRecord = idempotencyRepository.findById(idempotencyKey);
-            
-            if (existingRecord.isPresent()) {
-                IdempotencyRecord record = existingRecord.get();
-                if (!record.getPath().equals(path)) {
-                    throw new IllegalStateException("Idempotency key already used with different path");
-                }
-                
-                @SuppressWarnings("unchecked")
-                T responseBody = (T) objectMapper.readValue(record.getResponseBody(), Object.class);
-                return ResponseEntity.status(record.getStatusCode()).body(responseBody);
+            Optional<IdempotencyRecord> cachedRecord = metricsService.recordIdempotencyStep("cache_lookup",
+                    () -> idempotencyCache.get(idempotencyKey));
+            if (cachedRecord.isPresent()) {
+                return replay(cachedRecord.get(), path);
             }
 
-            ResponseEntity<T> response = operation.get();
-            
-            IdempotencyRecord record = new IdempotencyRecord();
-            record.setKey(idempotencyKey);
-            record.setPath(path);
-            record.setResponseBody(objectMapper.writeValueAsString(response.getBody()));
-            record.setStatusCode(response.getStatusCode().value());
-            record.setCreatedAt(OffsetDateTime.now());
-            record.setExpiresAt(OffsetDateTime.now().plus(EXPIRATION_HOURS, ChronoUnit.HOURS));
-            
-            idempotencyRepository.save(record);
-            
-            return response;
-        } catch (JsonProcessingException e) {
-            log.error("Error processing JSON", e);
-            throw new RuntimeException("Error processing JSON", e);
+            OffsetDateTime now = OffsetDateTime.now();
+            if (!metricsService.recordIdempotencyStep("claim", () -> claim(idempotencyKey, path, now))) {
+                return metricsService.recordIdempotencyStep("replay", () -> replay(idempotencyKey, path));
+            }
+
+            try {
+                P prepared = prepare.get();
+                IdempotencyRecord completedRecord = new IdempotencyRecord();
+                ResponseEntity<?> result = transactionTemplate.execute(status -> {
+                    ResponseEntity<?> response = operation.apply(prepared);
+                    metricsService.recordIdempotencyStep("store", () -> store(idempotencyKey, completedRecord, response));
+                    return response;
+                });
+
+                // Write through only once committed, so the cache never serves a rolled-back response
+                completedRecord.setKey(idempotencyKey);
+                completedRecord.setPath(path);
+                completedRecord.setStatus(IdempotencyStatus.COMPLETED);
+                completedRecord.setCreatedAt(now);
+                completedRecord.setExpiresAt(expiresAt(now));
+                idempotencyCache.put(completedRecord);
+                return result;
+            } catch (RuntimeException e) {
+                idempotencyRepository.release(idempotencyKey, IdempotencyStatus.IN_PROGRESS);
+                throw e;
+            }
+        } catch (UncheckedIOException e) {
+            log.error("Error processing JSON", e.getCause());
+            throw new RuntimeException("Error processing JSON", e.getCause());
         } catch (RuntimeException e) {
             if (e instanceof BusinessException) {
                 throw e;
@@ -67,14 +126,97 @@ public class IdempotencyService {
         }
     }
 
-    @Scheduled(cron = "0 0 * * * *") // Run every hour
-    @Transactional
-    public void cleanupExpiredRecords() {
+    private boolean claim(String idempotencyKey, String path, OffsetDateTime now) {
+        if (idempotencyRepository.claim(idempotencyKey, path, now, expiresAt(now)) == 1) {
+            return true;
+        }
+        return idempotencyRepository.reclaimStale(idempotencyKey, path, IdempotencyStatus.IN_PROGRESS, now, now.minus(CLAIM_LEASE)) == 1;
+    }
+
+    private ResponseEntity<?> replay(String idempotencyKey, String path) {
+        IdempotencyRecord record = idempotencyRepository.findById(idempotencyKey)
+                // The claim was released by a failed attempt between our insert and this read
+                .orElseThrow(() -> new IdempotencyConflictException("Request is being retried, please try again: " + idempotencyKey));
+        if (record.getStatus() == IdempotencyStatus.IN_PROGRESS && record.getPath().equals(path)) {
+            throw new IdempotencyConflictException("Request with the same Request-Id is still in progress: " + idempotencyKey);
+        }
+        ResponseEntity<?> response = replay(record, path);
+        idempotencyCache.put(record);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String path) {
+        if (!record.getPath().equals(path)) {
+            throw new IllegalStateException("Idempotency key already used with different path");
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(record.getStatusCode());
+        if (record.getResponseBody() == null) {
+            return response.build();
+        }
+        return response
+                .contentType(MediaType.parseMediaType(record.getContentType()))
+                .body(decode(record.getResponseBody(), record.getContentEncoding()));
+    }
+
+    private int store(String idempotencyKey, IdempotencyRecord record, ResponseEntity<?> response) {
+        storeResponse(record, response);
+        return idempotencyRepository.complete(
+                idempotencyKey,
+                IdempotencyStatus.COMPLETED,
+                record.getResponseBody(),
+                record.getContentType(),
+                record.getContentEncoding(),
+                record.getStatusCode());
+    }
+
+    private void storeResponse(IdempotencyRecord record, ResponseEntity<?> response) {
+        record.setStatusCode(response.getStatusCode().value());
+        if (response.getBody() == null) {
+            return;
+        }
+        MediaType contentType = response.getHeaders().getContentType();
+        byte[] body = toJson(response.getBody());
+        record.setContentType((contentType != null ? contentType : MediaType.APPLICATION_JSON).toString());
+        if (body.length >= COMPRESSION_THRESHOLD_BYTES) {
+            record.setResponseBody(gzip(body));
+            record.setContentEncoding(GZIP_ENCODING);
+        } else {
+            record.setResponseBody(body);
+        }
+    }
+
+    private static OffsetDateTime expiresAt(OffsetDateTime createdAt) {
+        return createdAt.plus(EXPIRATION_HOURS, ChronoUnit.HOURS);
+    }
+
+    private byte[] toJson(Object body) {
         try {
-            idempotencyRepository.deleteExpiredRecords(OffsetDateTime.now());
-            log.info("Cleaned up expired idempotency records");
-        } catch (Exception e) {
-            log.error("Error cleaning up expired idempotency records", e);
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] decode(byte[] storedBody, String contentEncoding) {
+        return GZIP_ENCODING.equals(contentEncoding) ? gunzip(storedBody) : storedBody;
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,10 +1,16 @@
 package com.sky.erm.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
 @Service
 @RequiredArgsConstructor
 public class MetricsService {
@@ -14,6 +20,10 @@ public class MetricsService {
     private Counter userUpdateCounter;
     private Counter projectAdditionCounter;
     private Counter failedLoginCounter;
+    private Counter idempotencyCleanupDeletedCounter;
+    private Timer idempotencyCleanupTimer;
+    private Timer passwordHashTimer;
+    private Counter passwordHashingRejectionCounter;
 
     public void init() {
         userCreationCounter = Counter.builder("app.user.creation")
@@ -31,6 +41,22 @@ public class MetricsService {
         failedLoginCounter = Counter.builder("app.login.failed")
                 .description("Number of failed login attempts")
                 .register(meterRegistry);
+
+        idempotencyCleanupDeletedCounter = Counter.builder("app.idempotency.cleanup.deleted")
+                .description("Number of expired idempotency records deleted")
+                .register(meterRegistry);
+
+        idempotencyCleanupTimer = Timer.builder("app.idempotency.cleanup.duration")
+                .description("Time taken by an idempotency cleanup run")
+                .register(meterRegistry);
+
+        passwordHashTimer = Timer.builder("app.password.hashing.duration")
+                .description("Time taken to hash a password")
+                .register(meterRegistry);
+
+        passwordHashingRejectionCounter = Counter.builder("app.password.hashing.rejected")
+                .description("Number of password hashes rejected because the hashing queue was full")
+                .register(meterRegistry);
     }
 
     public void incrementUserCreation() {
@@ -48,4 +74,44 @@ public class MetricsService {
     public void incrementFailedLogin() {
         failedLoginCounter.increment();
     }
+
+    public void recordIdempotencyCleanup(int recordsDeleted, Duration duration) {
+        idempotencyCleanupDeletedCounter.increment(recordsDeleted);
+        idempotencyCleanupTimer.record(duration);
+    }
+
+    public void registerPasswordHashingQueue(Collection<?> queue) {
+        Gauge.builder("app.password.hashing.queue.size", queue, Collection::size)
+                .description("Number of password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one step of idempotent request handling, such as the cache lookup or storing the response,
+     * and records its duration tagged with the step and its outcome.
+     */
+    public <T> T recordIdempotencyStep(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder("app.idempotency.duration")
+                    .description("Time spent in each step of idempotent request handling")
+                    .tag("step", step)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public void recordPasswordHash(Duration duration) {
+        passwordHashTimer.record(duration);
+    }
+
+    public void incrementPasswordHashingRejection() {
+        passwordHashingRejectionCounter.increment();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.sky.erm.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Password hashing executor settings.
+ *
+ * @param threads       hashing threads; 0 uses one per available processor, as BCrypt is purely CPU-bound
+ * @param queueCapacity hashes allowed to wait for a thread before new ones are rejected
+ * @param retryAfter    Retry-After sent to clients whose request was rejected because the queue was full
+ */
+@ConfigurationProperties(prefix = "erm.password-hashing")
+public record PasswordHashingProperties(
+        @DefaultValue("0") int threads,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("1s") Duration retryAfter) {
+
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
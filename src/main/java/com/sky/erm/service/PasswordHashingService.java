@@ -0,0 +1,131 @@
+package com.sky.erm.service;
+
+import com.sky.erm.exception.PasswordHashingUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes passwords on a dedicated executor sized to the CPU count, so a burst of sign-ups cannot occupy
+ * every request thread with BCrypt and starve cheap reads.
+ * <p>
+ * The executor queue is bounded. Once it is full, new hashes are rejected straight away with
+ * {@link PasswordHashingUnavailableException} (503 with Retry-After) instead of queueing without limit.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MetricsService metricsService;
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MetricsService metricsService,
+                                  PasswordHashingProperties properties) {
+        this.passwordEncoder = passwordEncoder;
+        this.metricsService = metricsService;
+        this.properties = properties;
+        int threads = properties.effectiveThreads();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        metricsService.registerPasswordHashingQueue(executor.getQueue());
+    }
+
+    public String hash(String rawPassword) {
+        return await(submit(rawPassword));
+    }
+
+    /**
+     * Hashes the passwords with at most one per hashing thread in flight, so a large batch keeps the pool
+     * busy without filling the queue ahead of single sign-ups.
+     * <p>
+     * Once the threads exist every task passes through the queue, so the batch also never has more in
+     * flight than the queue holds, and waits for its own oldest hash while the queue is full. It is only
+     * rejected when other requests have filled the queue and none of its own hashes are pending.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        int maxInFlight = Math.max(1, Math.min(properties.effectiveThreads(), properties.queueCapacity()));
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>(maxInFlight);
+        try {
+            for (String rawPassword : rawPasswords) {
+                while (!inFlight.isEmpty()
+                        && (inFlight.size() >= maxInFlight || executor.getQueue().remainingCapacity() == 0)) {
+                    hashes.add(await(inFlight.removeFirst()));
+                }
+                inFlight.addLast(submit(rawPassword));
+            }
+            while (!inFlight.isEmpty()) {
+                hashes.add(await(inFlight.removeFirst()));
+            }
+        } catch (RuntimeException e) {
+            inFlight.forEach(future -> future.cancel(false));
+            throw e;
+        }
+        return hashes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Future<String> submit(String rawPassword) {
+        try {
+            return executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return passwordEncoder.encode(rawPassword);
+                } finally {
+                    metricsService.recordPasswordHash(Duration.ofNanos(System.nanoTime() - start));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full, rejecting request");
+            metricsService.incrementPasswordHashingRejection();
+            throw new PasswordHashingUnavailableException("Too many concurrent password changes, please retry later",
+                    properties.retryAfter());
+        }
+    }
+
+    private static String await(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Password hashing was cancelled", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.sky.erm.service;
+
+import com.sky.erm.security.AuthenticationCache;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Broadcasts user cache invalidations between instances with PostgreSQL LISTEN/NOTIFY, so no message
+ * broker is needed.
+ * <p>
+ * {@code NOTIFY} runs in the writer's transaction and is delivered only if it commits. Every instance
+ * keeps one dedicated connection, outside the pool, that listens on the channel and evicts the users it
+ * is told about, along with the cached authentication of the user name a notification carries.
+ * Notifications sent while that connection is down are lost, so both caches are cleared whenever it
+ * (re)connects.
+ * <p>
+ * The payload is the user ID, followed by {@code :} and the user name when authentications must be
+ * dropped too. IDs contain no {@code :}, so the name is everything after the first one.
+ */
+@Slf4j
+public class PostgresUserCacheInvalidator implements UserCacheInvalidator, SmartLifecycle {
+
+    static final String CHANNEL = "erm_user_cache";
+    private static final char USERNAME_SEPARATOR = ':';
+    private static final int POLL_TIMEOUT_MILLIS = 10_000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache usersCache;
+    private final AuthenticationCache authenticationCache;
+    private final DataSourceProperties dataSourceProperties;
+
+    private volatile boolean running;
+    private volatile Connection listenerConnection;
+    private Thread listenerThread;
+
+    public PostgresUserCacheInvalidator(JdbcTemplate jdbcTemplate, Cache usersCache, AuthenticationCache authenticationCache,
+                                        DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.usersCache = usersCache;
+        this.authenticationCache = authenticationCache;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @Override
+    public void invalidate(Long userId, String username) {
+        String payload = username == null ? userId.toString() : userId.toString() + USERNAME_SEPARATOR + username;
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "user-cache-invalidation");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        closeQuietly(listenerConnection);
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                usersCache.clear();
+                authenticationCache.invalidateAll();
+                log.info("Listening for user cache invalidations on channel {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("User cache invalidation listener disconnected, reconnecting in {}", RECONNECT_DELAY, e);
+                    sleep(RECONNECT_DELAY);
+                }
+            }
+        }
+    }
+
+    private void evict(String payload) {
+        int separator = payload.indexOf(USERNAME_SEPARATOR);
+        if (separator >= 0) {
+            authenticationCache.invalidate(payload.substring(separator + 1));
+        }
+        try {
+            usersCache.evict(Long.valueOf(separator < 0 ? payload : payload.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user cache invalidation: {}", payload);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close user cache invalidation listener connection", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.sky.erm.service;
+
+import com.sky.erm.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database-backed leases that keep a scheduled job to one instance at a time. A lease that is not
+ * released, for example because the instance died, lapses on its own once {@code leaseTime} has passed.
+ * <p>
+ * Each instance runs a job on its own schedule, so a lease that ended with the run would let every other
+ * instance repeat it on its next tick. Releasing keeps the lease for a minimum time instead, like
+ * ShedLock's {@code lockAtLeastFor}, so the job runs once per interval across all instances.
+ */
+@Service
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+    private static final String OWNER = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final Map<String, OffsetDateTime> lockedAt = new ConcurrentHashMap<>();
+
+    public boolean tryLock(String name, Duration leaseTime) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime lockedUntil = now.plus(leaseTime);
+        boolean locked = schedulerLockRepository.create(name, OWNER, lockedUntil) == 1
+                || schedulerLockRepository.acquireExpired(name, OWNER, now, lockedUntil) == 1;
+        if (locked) {
+            lockedAt.put(name, now);
+        }
+        return locked;
+    }
+
+    /**
+     * Ends the lease once {@code lockAtLeastFor} has passed since it was taken, or now if that is already
+     * over.
+     */
+    public void unlock(String name, Duration lockAtLeastFor) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime since = lockedAt.remove(name);
+        OffsetDateTime lockedUntil = since == null ? now : since.plus(lockAtLeastFor);
+        schedulerLockRepository.release(name, OWNER, lockedUntil.isAfter(now) ? lockedUntil : now);
+    }
+}
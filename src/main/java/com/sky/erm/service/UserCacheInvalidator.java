@@ -0,0 +1,22 @@
+package com.sky.erm.service;
+
+/**
+ * Tells the other instances of the application that a user's cached state is stale. Local caches are
+ * evicted separately; this only reaches the other nodes.
+ */
+public interface UserCacheInvalidator {
+
+    /**
+     * Called inside the transaction that changes the user; other instances are told once it commits.
+     */
+    default void invalidate(Long userId) {
+        invalidate(userId, null);
+    }
+
+    /**
+     * Like {@link #invalidate(Long)}, and also drops the cached authentication of {@code username} on the
+     * other instances. Pass the name the user logged in with before a change to its name or password, or
+     * before it is deleted, so no instance keeps accepting the old credentials.
+     */
+    void invalidate(Long userId, String username);
+}
@@ -1,20 +1,31 @@
 package com.sky.erm.service;
 
+import com.sky.erm.model.BatchAddProjectsResponseDto;
+import com.sky.erm.model.BatchCreateUsersResponseDto;
 import com.sky.erm.model.CreateProjectRequestDto;
 import com.sky.erm.model.CreateUserRequestDto;
+import com.sky.erm.model.ProjectPageResponseDto;
 import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserPageResponseDto;
 import com.sky.erm.model.UserResponseDto;
 import com.sky.erm.model.UpdateUserRequestDto;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
-public interface UserService extends UserDetailsService {
-    UserResponseDto createUser(CreateUserRequestDto createUserRequestDto);
-    List<UserResponseDto> getAllUsers();
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
+    // Passwords arrive already hashed, so BCrypt never runs inside the transaction holding a connection
+    UserResponseDto createUser(CreateUserRequestDto createUserRequestDto, String passwordHash);
+    BatchCreateUsersResponseDto createUsers(List<CreateUserRequestDto> createUserRequestDtos, List<String> passwordHashes);
+    UserPageResponseDto getAllUsers(int limit, Long after);
+    void streamAllUsers(Consumer<UserResponseDto> consumer);
     UserResponseDto getUserById(Long userId);
+    long getUserVersion(Long userId);
     void deleteUser(Long userId);
     ProjectResponseDto addProjectToUser(Long userId, CreateProjectRequestDto createProjectRequestDto);
-    List<ProjectResponseDto> getUserProjects(Long userId);
-    UserResponseDto updateUser(Long userId, UpdateUserRequestDto updateUserRequestDto);
+    BatchAddProjectsResponseDto addProjectsToUser(Long userId, List<CreateProjectRequestDto> createProjectRequestDtos);
+    ProjectPageResponseDto getUserProjects(Long userId, int limit, String after, String namePrefix);
+    UserResponseDto updateUser(Long userId, UpdateUserRequestDto updateUserRequestDto, String passwordHash);
 } 
\ No newline at end of file
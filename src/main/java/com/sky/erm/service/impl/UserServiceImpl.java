@@ -1,42 +1,72 @@
 package com.sky.erm.service.impl;
 
+import com.sky.erm.config.CacheConfig;
 import com.sky.erm.domain.ErmUser;
 import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.exception.ConcurrentUpdateException;
 import com.sky.erm.exception.DuplicateEmailException;
+import com.sky.erm.exception.DuplicateProjectException;
 import com.sky.erm.exception.UserNotFoundException;
 import com.sky.erm.mapper.ProjectMapper;
 import com.sky.erm.mapper.UserMapper;
+import com.sky.erm.model.BatchAddProjectResultDto;
+import com.sky.erm.model.BatchAddProjectsResponseDto;
+import com.sky.erm.model.BatchCreateUserResultDto;
+import com.sky.erm.model.BatchCreateUsersResponseDto;
 import com.sky.erm.model.CreateProjectRequestDto;
 import com.sky.erm.model.CreateUserRequestDto;
+import com.sky.erm.model.ProjectPageResponseDto;
 import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserPageResponseDto;
 import com.sky.erm.model.UserResponseDto;
 import com.sky.erm.model.UpdateUserRequestDto;
+import com.sky.erm.repository.UserExternalProjectRepository;
 import com.sky.erm.repository.UserRepository;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.security.ErmUserDetails;
 import com.sky.erm.service.MetricsService;
+import com.sky.erm.service.UserCacheInvalidator;
 import com.sky.erm.service.UserService;
 import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserServiceImpl implements UserService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
+    private final UserExternalProjectRepository userExternalProjectRepository;
     private final UserMapper userMapper;
     private final ProjectMapper projectMapper;
-    private final PasswordEncoder passwordEncoder;
     private final MetricsService metricsService;
+    private final EntityManager entityManager;
+    private final AuthenticationCache authenticationCache;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final CacheManager cacheManager;
 
     @PostConstruct
     public void init() {
@@ -45,28 +75,106 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Timed(value = "user.creation", description = "Time taken to create a new user")
-    public UserResponseDto createUser(CreateUserRequestDto createUserRequestDto) {
-        if (userRepository.findByEmail(createUserRequestDto.getEmail()).isPresent()) {
-            throw new DuplicateEmailException("Email already exists: " + createUserRequestDto.getEmail());
-        }
-
+    public UserResponseDto createUser(CreateUserRequestDto createUserRequestDto, String passwordHash) {
         ErmUser user = userMapper.toEntity(createUserRequestDto);
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user = userRepository.save(user);
+        user.setPassword(passwordHash);
+        try {
+            // The unique email constraint rejects duplicates, saving a lookup before every insert
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new DuplicateEmailException("Email already exists: " + createUserRequestDto.getEmail());
+            }
+            throw e;
+        }
         metricsService.incrementUserCreation();
         return userMapper.toDto(user);
     }
 
+    @Override
+    @Timed(value = "user.batch.creation", description = "Time taken to create a batch of users")
+    public BatchCreateUsersResponseDto createUsers(List<CreateUserRequestDto> createUserRequestDtos, List<String> passwordHashes) {
+        // A single query finds every email that is already taken
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                createUserRequestDtos.stream().map(CreateUserRequestDto::getEmail).toList()));
+
+        List<BatchCreateUserResultDto> results = new ArrayList<>(createUserRequestDtos.size());
+        List<BatchCreateUserResultDto> createdResults = new ArrayList<>();
+        List<ErmUser> newUsers = new ArrayList<>();
+        for (int i = 0; i < createUserRequestDtos.size(); i++) {
+            CreateUserRequestDto createUserRequestDto = createUserRequestDtos.get(i);
+            BatchCreateUserResultDto result = new BatchCreateUserResultDto();
+            result.setIndex(i);
+            results.add(result);
+
+            if (!takenEmails.add(createUserRequestDto.getEmail())) {
+                result.setStatus(BatchCreateUserResultDto.StatusEnum.DUPLICATE_EMAIL);
+                result.setMessage("Email already exists: " + createUserRequestDto.getEmail());
+            } else {
+                ErmUser newUser = userMapper.toEntity(createUserRequestDto);
+                newUser.setPassword(passwordHashes.get(i));
+                newUsers.add(newUser);
+                createdResults.add(result);
+            }
+        }
+
+        try {
+            newUsers = userRepository.saveAllAndFlush(newUsers);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new DuplicateEmailException("Email already exists: a concurrent request created one of the users in this batch");
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < newUsers.size(); i++) {
+            BatchCreateUserResultDto result = createdResults.get(i);
+            result.setStatus(BatchCreateUserResultDto.StatusEnum.CREATED);
+            result.setUser(userMapper.toDto(newUsers.get(i)));
+            metricsService.incrementUserCreation();
+        }
+
+        BatchCreateUsersResponseDto response = new BatchCreateUsersResponseDto();
+        response.setResults(results);
+        return response;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toDto)
-                .toList();
+    public UserPageResponseDto getAllUsers(int limit, Long after) {
+        // Fetch one extra ID to find out whether another page follows without a count query
+        List<Long> userIds = userRepository.findIdsAfter(after == null ? 0L : after, Limit.of(limit + 1));
+        boolean hasNextPage = userIds.size() > limit;
+        List<Long> pageIds = hasNextPage ? userIds.subList(0, limit) : userIds;
+
+        UserPageResponseDto response = new UserPageResponseDto();
+        response.setItems(findUsersWithProjects(pageIds));
+        if (hasNextPage) {
+            response.setNextCursor(pageIds.get(pageIds.size() - 1));
+        }
+        return response;
     }
 
     @Override
     @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserResponseDto> consumer) {
+        long after = 0L;
+        List<Long> userIds;
+        do {
+            userIds = userRepository.findIdsAfter(after, Limit.of(STREAM_CHUNK_SIZE));
+            findUsersWithProjects(userIds).forEach(consumer);
+            // Keep the persistence context from growing with the table
+            entityManager.clear();
+            if (!userIds.isEmpty()) {
+                after = userIds.get(userIds.size() - 1);
+            }
+        } while (userIds.size() == STREAM_CHUNK_SIZE);
+    }
+
+    @Override
+    // Not read-only, so it reads from the primary even when replicas are configured: a lagging replica
+    // could put back into the cache the state that an update has just evicted
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#userId", sync = true)
     public UserResponseDto getUserById(Long userId) {
         return userRepository.findByIdWithProjects(userId)
                 .map(userMapper::toDto)
@@ -74,54 +182,157 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("User not found with id: " + userId);
+    // Not read-only, like the project page it tags: an ETag taken from the primary or the cache must not
+    // be paired with, or compared against, state read from a lagging replica
+    public long getUserVersion(Long userId) {
+        // A cached response carries the version it was built from, which saves the query
+        UserResponseDto cachedUser = cacheManager.getCache(CacheConfig.USERS_CACHE).get(userId, UserResponseDto.class);
+        if (cachedUser != null) {
+            return cachedUser.getVersion();
         }
-        userRepository.deleteById(userId);
+        return userRepository.findVersionById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
     }
 
     @Override
-    @Timed(value = "project.addition", description = "Time taken to add a project to a user")
-    public ProjectResponseDto addProjectToUser(Long userId, CreateProjectRequestDto createProjectRequestDto) {
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public void deleteUser(Long userId) {
         ErmUser user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        userRepository.delete(user);
+        authenticationCache.invalidate(user.getName());
+        userCacheInvalidator.invalidate(userId, user.getName());
+    }
 
+    @Override
+    @Timed(value = "project.addition", description = "Time taken to add a project to a user")
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public ProjectResponseDto addProjectToUser(Long userId, CreateProjectRequestDto createProjectRequestDto) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        // A reference is enough to set the foreign key; the user's project collection is never loaded,
+        // so the cost does not grow with the number of projects the user already has
+        ErmUser user = userRepository.getReferenceById(userId);
         UserExternalProject project = projectMapper.toEntity(createProjectRequestDto, user);
         project.setUser(user);
-        user.addExternalProject(project);
 
-        user = userRepository.save(user);
+        try {
+            project = userExternalProjectRepository.saveAndFlush(project);
+        } catch (DataIntegrityViolationException e) {
+            // The user exists and the name is validated, so only the primary key can be violated
+            throw new DuplicateProjectException("Project already added to user: " + createProjectRequestDto.getId());
+        }
+        // Only once the project is in, so a rejected duplicate leaves every client's ETag valid
+        userRepository.incrementVersion(userId);
+        userCacheInvalidator.invalidate(userId);
         metricsService.incrementProjectAddition();
         return projectMapper.toDto(project);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<ProjectResponseDto> getUserProjects(Long userId) {
-        ErmUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+    @Timed(value = "project.batch.addition", description = "Time taken to add a batch of projects to a user")
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public BatchAddProjectsResponseDto addProjectsToUser(Long userId, List<CreateProjectRequestDto> createProjectRequestDtos) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        // Only the ID is needed, so the user's row and project collection are never loaded
+        ErmUser user = userRepository.getReferenceById(userId);
+        Set<String> takenProjectIds = new HashSet<>(userExternalProjectRepository.findExistingProjectIds(
+                userId, createProjectRequestDtos.stream().map(CreateProjectRequestDto::getId).toList()));
 
-        return user.getExternalProjects().stream()
-                .map(projectMapper::toDto)
-                .toList();
+        List<BatchAddProjectResultDto> results = new ArrayList<>(createProjectRequestDtos.size());
+        List<BatchAddProjectResultDto> newResults = new ArrayList<>();
+        List<UserExternalProject> newProjects = new ArrayList<>();
+        for (int i = 0; i < createProjectRequestDtos.size(); i++) {
+            CreateProjectRequestDto createProjectRequestDto = createProjectRequestDtos.get(i);
+            BatchAddProjectResultDto result = new BatchAddProjectResultDto();
+            result.setIndex(i);
+            results.add(result);
+
+            if (!takenProjectIds.add(createProjectRequestDto.getId())) {
+                markDuplicateProject(result, createProjectRequestDto.getId());
+            } else {
+                newProjects.add(projectMapper.toEntity(createProjectRequestDto, user));
+                newResults.add(result);
+            }
+        }
+
+        boolean[] inserted = newProjects.isEmpty()
+                ? new boolean[0]
+                : userExternalProjectRepository.insertIgnoringDuplicates(newProjects);
+        boolean anyInserted = false;
+        for (int i = 0; i < newProjects.size(); i++) {
+            BatchAddProjectResultDto result = newResults.get(i);
+            UserExternalProject project = newProjects.get(i);
+            if (inserted[i]) {
+                anyInserted = true;
+                result.setStatus(BatchAddProjectResultDto.StatusEnum.CREATED);
+                result.setProject(projectMapper.toDto(project));
+                metricsService.incrementProjectAddition();
+            } else {
+                // Added by a concurrent request after the existence check
+                markDuplicateProject(result, project.getId().getProjectId());
+            }
+        }
+
+        // A batch of duplicates changes nothing, so it leaves the version and every client's ETag alone
+        if (anyInserted) {
+            userRepository.incrementVersion(userId);
+            userCacheInvalidator.invalidate(userId);
+        }
+        BatchAddProjectsResponseDto response = new BatchAddProjectsResponseDto();
+        response.setResults(results);
+        return response;
+    }
+
+    @Override
+    // Not read-only, so it reads from the primary like getUserVersion: a page from a lagging replica
+    // would be cached by clients under an ETag that is already ahead of it
+    public ProjectPageResponseDto getUserProjects(Long userId, int limit, String after, String namePrefix) {
+        // Fetch one extra project to find out whether another page follows without a count query
+        List<UserExternalProject> projects = userExternalProjectRepository.findPage(
+                userId, after == null ? "" : after, toPrefixPattern(namePrefix), Limit.of(limit + 1));
+        // Only an empty page needs to tell an unknown user apart from one without matching projects
+        if (projects.isEmpty() && !userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        boolean hasNextPage = projects.size() > limit;
+        List<UserExternalProject> page = hasNextPage ? projects.subList(0, limit) : projects;
+
+        ProjectPageResponseDto response = new ProjectPageResponseDto();
+        response.setItems(page.stream().map(projectMapper::toDto).toList());
+        if (hasNextPage) {
+            response.setNextCursor(page.get(page.size() - 1).getId().getProjectId());
+        }
+        return response;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         ErmUser user = userRepository.findByName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return User.builder()
-                .username(user.getName())
-                .password(user.getPassword())
-                .build();
+        return new ErmUserDetails(user.getId(), user.getName(), user.getPassword());
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // Names are not unique, so only the ID identifies the user who just logged in
+        Long userId = ((ErmUserDetails) user).getId();
+        if (userRepository.updatePassword(userId, newPassword) != 1) {
+            throw new UsernameNotFoundException("User not found: " + user.getUsername());
+        }
+        return new ErmUserDetails(userId, user.getUsername(), newPassword);
     }
 
     @Override
     @Timed(value = "user.update", description = "Time taken to update a user")
-    public UserResponseDto updateUser(Long userId, UpdateUserRequestDto updateUserRequestDto) {
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public UserResponseDto updateUser(Long userId, UpdateUserRequestDto updateUserRequestDto, String passwordHash) {
         ErmUser user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        String previousName = user.getName();
 
         if (updateUserRequestDto.getEmail() != null) {
             userRepository.findByEmail(updateUserRequestDto.getEmail())
@@ -137,12 +348,50 @@ public class UserServiceImpl implements UserService {
             user.setName(updateUserRequestDto.getName());
         }
         
-        if (updateUserRequestDto.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(updateUserRequestDto.getPassword()));
+        if (passwordHash != null) {
+            user.setPassword(passwordHash);
         }
 
-        user = userRepository.save(user);
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("User was modified concurrently, please retry: " + userId);
+        }
+        if (passwordHash != null || updateUserRequestDto.getName() != null) {
+            authenticationCache.invalidate(previousName);
+            userCacheInvalidator.invalidate(userId, previousName);
+        } else {
+            userCacheInvalidator.invalidate(userId);
+        }
         metricsService.incrementUserUpdate();
         return userMapper.toDto(user);
     }
-}
\ No newline at end of file
+
+    private static void markDuplicateProject(BatchAddProjectResultDto result, String projectId) {
+        result.setStatus(BatchAddProjectResultDto.StatusEnum.DUPLICATE_PROJECT);
+        result.setMessage("Project already added to user: " + projectId);
+    }
+
+    private static String toPrefixPattern(String prefix) {
+        if (prefix == null) {
+            return "%";
+        }
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(ErmUser.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    private List<UserResponseDto> findUsersWithProjects(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        // Projects for the whole page come back in the same statement, avoiding one lazy load per user
+        return userRepository.findAllWithProjectsByIdIn(userIds).stream()
+                .map(userMapper::toDto)
+                .toList();
+    }
+}
@@ -0,0 +1,8 @@
+-- Emails are unique per user; createUser relies on this constraint instead of a pre-insert lookup
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tb_user_email ON tb_user (email);
+
+-- Every authenticated request looks users up by name
+CREATE INDEX IF NOT EXISTS ix_tb_user_name ON tb_user (name);
+
+-- The composite primary key leads with the project id, so user_id lookups need their own index
+CREATE INDEX IF NOT EXISTS ix_tb_user_external_project_user_id ON tb_user_external_project (user_id);
@@ -0,0 +1,5 @@
+-- Keys are claimed as IN_PROGRESS before the operation runs and completed with its response afterwards
+ALTER TABLE idempotency_record ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'COMPLETED';
+ALTER TABLE idempotency_record ALTER COLUMN status DROP DEFAULT;
+ALTER TABLE idempotency_record ALTER COLUMN response_body DROP NOT NULL;
+ALTER TABLE idempotency_record ALTER COLUMN status_code DROP NOT NULL;
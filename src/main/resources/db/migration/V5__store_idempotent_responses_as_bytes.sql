@@ -0,0 +1,5 @@
+-- Responses are stored exactly as written to the client so replays skip JSON parsing and rendering
+ALTER TABLE idempotency_record ALTER COLUMN response_body TYPE BYTEA USING convert_to(response_body, 'UTF8');
+ALTER TABLE idempotency_record ADD COLUMN content_type VARCHAR(100);
+ALTER TABLE idempotency_record ADD COLUMN content_encoding VARCHAR(20);
+UPDATE idempotency_record SET content_type = 'application/json' WHERE response_body IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Cleanup deletes expired records in small batches ordered by this index instead of scanning the table
+CREATE INDEX IF NOT EXISTS ix_idempotency_record_expires_at ON idempotency_record (expires_at);
+
+-- Leases for scheduled jobs that must run on one instance at a time
+CREATE TABLE scheduler_lock (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_by VARCHAR(255) NOT NULL,
+    locked_until TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,2 @@
+-- ErmUser reserves IDs in blocks of 50 so Hibernate can batch inserts; the increment must match its allocationSize
+ALTER SEQUENCE tb_user_id_seq INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Project pages are read per user in project ID order; this index serves both the filter and the sort
+-- and replaces the single-column user_id index
+CREATE INDEX IF NOT EXISTS ix_tb_user_external_project_user_id_id ON tb_user_external_project (user_id, id);
+DROP INDEX IF EXISTS ix_tb_user_external_project_user_id;
@@ -0,0 +1,2 @@
+-- Optimistic locking version, also bumped when a user's projects change; exposed to clients as the ETag
+ALTER TABLE tb_user ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -1,5 +1,6 @@
 package com.sky.erm;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -14,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 class ErmApplicationTests {
     @Autowired
     ApplicationContext applicationContext;
+    @Autowired
+    MeterRegistry meterRegistry;
 
     @Test
     void contextLoads() {
@@ -21,4 +24,11 @@ class ErmApplicationTests {
         assertNotNull(applicationContext);
     }
 
+    @Test
+    void connectionPoolMetricsAreRegistered() {
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", "erm-pool").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "erm-pool").timer());
+    }
+
 }
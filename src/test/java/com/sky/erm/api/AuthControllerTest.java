@@ -0,0 +1,84 @@
+package com.sky.erm.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.erm.config.SecurityConfig;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.security.TokenKeyRing;
+import com.sky.erm.security.TokenService;
+import com.sky.erm.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, AuthenticationCache.class, TokenKeyRing.class, TokenService.class})
+class AuthControllerTest {
+
+    private static final String AUTHORIZATION_HEADER = "Basic dGFyZWs6cGFzc3dvcmQ=";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.loadUserByUsername("tarek"))
+                .thenReturn(User.withUsername("tarek")
+                        .password(passwordEncoder.encode("password"))
+                        .build());
+    }
+
+    @Test
+    void issueToken_WithBasicCredentials_Success() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .header("Authorization", AUTHORIZATION_HEADER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").exists())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+    }
+
+    @Test
+    void issueToken_WithBearerToken_Forbidden() throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/token")
+                        .header("Authorization", AUTHORIZATION_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode token = objectMapper.readTree(response);
+
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .header("Authorization", "Bearer " + token.get("accessToken").asText()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void issueToken_WithInvalidBearerToken_Unauthorized() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void issueToken_WithoutCredentials_Unauthorized() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/token"))
+                .andExpect(status().isUnauthorized());
+    }
+}
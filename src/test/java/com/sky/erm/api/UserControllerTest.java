@@ -2,8 +2,12 @@ package com.sky.erm.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sky.erm.config.SecurityConfig;
+import com.sky.erm.exception.PasswordHashingUnavailableException;
 import com.sky.erm.model.*;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.security.TokenKeyRing;
 import com.sky.erm.service.IdempotencyService;
+import com.sky.erm.service.PasswordHashingService;
 import com.sky.erm.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,21 +20,32 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, AuthenticationCache.class, TokenKeyRing.class})
 class UserControllerTest {
 
     private static final String AUTHORIZATION_HEADER = "Basic dGFyZWs6cGFzc3dvcmQ=";
@@ -49,6 +64,9 @@ class UserControllerTest {
     @MockBean
     private IdempotencyService idempotencyService;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
     private UserResponseDto mockUserResponse;
     private CreateUserRequestDto createUserRequest;
     private UpdateUserRequestDto updateUserRequest;
@@ -61,6 +79,7 @@ class UserControllerTest {
         mockUserResponse = new UserResponseDto();
         mockUserResponse.setId(1L);
         mockUserResponse.setEmail("test@example.com");
+        mockUserResponse.setVersion(3L);
 
         // Initialize create user request with required fields
         createUserRequest = new CreateUserRequestDto();
@@ -92,14 +111,17 @@ class UserControllerTest {
 
     @Test
     void createUser_Success() throws Exception {
-        when(userService.createUser(any(CreateUserRequestDto.class))).thenReturn(mockUserResponse);
+        when(passwordHashingService.hash(createUserRequest.getPassword())).thenReturn("encoded_password");
+        when(userService.createUser(any(CreateUserRequestDto.class), eq("encoded_password"))).thenReturn(mockUserResponse);
         when(idempotencyService.processIdempotentRequest(
+                any(),
                 any(),
                 any(),
                 any()
         )).thenAnswer(invocation -> {
-            Supplier<?> supplier = invocation.getArgument(2);
-            return supplier.get();
+            Supplier<?> prepare = invocation.getArgument(2);
+            Function<Object, ?> operation = invocation.getArgument(3);
+            return operation.apply(prepare.get());
         });
 
         mockMvc.perform(post("/api/v1/users")
@@ -111,13 +133,35 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").exists());
     }
 
+    @Test
+    void createUser_WhenPasswordHashingSaturated_ServiceUnavailable() throws Exception {
+        when(passwordHashingService.hash(createUserRequest.getPassword()))
+                .thenThrow(new PasswordHashingUnavailableException("Too many concurrent password changes, please retry later",
+                        Duration.ofMillis(1500)));
+        when(idempotencyService.processIdempotentRequest(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Supplier<?> prepare = invocation.getArgument(2);
+            return prepare.get();
+        });
+
+        mockMvc.perform(post("/api/v1/users")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("Request-Id", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createUserRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503));
+        verify(userService, never()).createUser(any(), any());
+    }
+
     @Test
     void createUser_WithIdempotency_Success() throws Exception {
         when(idempotencyService.processIdempotentRequest(
                 eq("test-request-id"),
                 any(),
+                any(),
                 any()
-        )).thenReturn(ResponseEntity.status(201).body(mockUserResponse));
+        )).thenAnswer(invocation -> ResponseEntity.status(201).body(mockUserResponse));
 
         mockMvc.perform(post("/api/v1/users")
                         .header("Authorization", AUTHORIZATION_HEADER)
@@ -127,25 +171,128 @@ class UserControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void createUsers_Success() throws Exception {
+        BatchCreateUserResultDto created = new BatchCreateUserResultDto();
+        created.setIndex(0);
+        created.setStatus(BatchCreateUserResultDto.StatusEnum.CREATED);
+        created.setUser(mockUserResponse);
+        BatchCreateUserResultDto duplicate = new BatchCreateUserResultDto();
+        duplicate.setIndex(1);
+        duplicate.setStatus(BatchCreateUserResultDto.StatusEnum.DUPLICATE_EMAIL);
+        BatchCreateUsersResponseDto batchResponse = new BatchCreateUsersResponseDto();
+        batchResponse.setResults(List.of(created, duplicate));
+
+        when(passwordHashingService.hashAll(List.of(createUserRequest.getPassword(), createUserRequest.getPassword())))
+                .thenReturn(List.of("encoded_first", "encoded_second"));
+        when(userService.createUsers(anyList(), eq(List.of("encoded_first", "encoded_second")))).thenReturn(batchResponse);
+        when(idempotencyService.processIdempotentRequest(
+                any(),
+                any(),
+                any(),
+                any()
+        )).thenAnswer(invocation -> {
+            Supplier<?> prepare = invocation.getArgument(2);
+            Function<Object, ?> operation = invocation.getArgument(3);
+            return operation.apply(prepare.get());
+        });
+
+        mockMvc.perform(post("/api/v1/users:batch")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("Request-Id", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createUserRequest, createUserRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].user.id").exists())
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE_EMAIL"));
+    }
+
     @Test
     void getAllUsers_Success() throws Exception {
-        List<UserResponseDto> users = Arrays.asList(mockUserResponse);
-        when(userService.getAllUsers()).thenReturn(users);
+        UserPageResponseDto page = new UserPageResponseDto();
+        page.setItems(Arrays.asList(mockUserResponse));
+        page.setNextCursor(1L);
+        when(userService.getAllUsers(50, null)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/users")
+                        .header("Authorization", AUTHORIZATION_HEADER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0]").exists())
+                .andExpect(jsonPath("$.nextCursor").value(1));
+    }
+
+    @Test
+    void getAllUsers_WithCursor_Success() throws Exception {
+        UserPageResponseDto page = new UserPageResponseDto();
+        page.setItems(Arrays.asList(mockUserResponse));
+        when(userService.getAllUsers(10, 5L)).thenReturn(page);
 
         mockMvc.perform(get("/api/v1/users")
+                        .param("limit", "10")
+                        .param("after", "5")
                         .header("Authorization", AUTHORIZATION_HEADER))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0]").exists());
+                .andExpect(jsonPath("$.items[0]").exists())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void streamAllUsers_Success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(0);
+            consumer.accept(mockUserResponse);
+            consumer.accept(mockUserResponse);
+            return null;
+        }).when(userService).streamAllUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users:stream")
+                        .header("Authorization", AUTHORIZATION_HEADER))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\n")));
     }
 
     @Test
     void getUserById_Success() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
         when(userService.getUserById(1L)).thenReturn(mockUserResponse);
 
         mockMvc.perform(get("/api/v1/users/1")
                         .header("Authorization", AUTHORIZATION_HEADER))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").exists());
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.id").exists())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getUserById_WithMatchingETag_NotModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/users/1")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("If-None-Match", "\"2\", W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void getUserById_WithStaleETag_Success() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+        when(userService.getUserById(1L)).thenReturn(mockUserResponse);
+
+        mockMvc.perform(get("/api/v1/users/1")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
     }
 
     @Test
@@ -153,8 +300,9 @@ class UserControllerTest {
         when(idempotencyService.processIdempotentRequest(
                 eq("test-request-id"),
                 any(),
+                any(),
                 any()
-        )).thenReturn(ResponseEntity.ok(mockUserResponse));
+        )).thenAnswer(invocation -> ResponseEntity.ok(mockUserResponse));
 
         mockMvc.perform(put("/api/v1/users/1")
                         .header("Authorization", AUTHORIZATION_HEADER)
@@ -175,13 +323,45 @@ class UserControllerTest {
 
     @Test
     void getUserProjects_Success() throws Exception {
-        List<ProjectResponseDto> projects = Arrays.asList(mockProjectResponse);
-        when(userService.getUserProjects(1L)).thenReturn(projects);
+        ProjectPageResponseDto page = new ProjectPageResponseDto();
+        page.setItems(Arrays.asList(mockProjectResponse));
+        page.setNextCursor("proj-123");
+        when(userService.getUserProjects(1L, 50, null, null)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/users/1/projects")
+                        .header("Authorization", AUTHORIZATION_HEADER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0]").exists())
+                .andExpect(jsonPath("$.nextCursor").value("proj-123"))
+                .andExpect(header().string("ETag", "\"0\""));
+    }
+
+    @Test
+    void getUserProjects_WithCursorAndPrefix_Success() throws Exception {
+        ProjectPageResponseDto page = new ProjectPageResponseDto();
+        page.setItems(Arrays.asList(mockProjectResponse));
+        when(userService.getUserProjects(1L, 10, "proj-100", "Test")).thenReturn(page);
 
         mockMvc.perform(get("/api/v1/users/1/projects")
+                        .param("limit", "10")
+                        .param("after", "proj-100")
+                        .param("namePrefix", "Test")
                         .header("Authorization", AUTHORIZATION_HEADER))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0]").exists());
+                .andExpect(jsonPath("$.items[0]").exists())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getUserProjects_WithMatchingETag_NotModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/users/1/projects")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"7\""));
+        verify(userService, never()).getUserProjects(anyLong(), anyInt(), any(), any());
     }
 
     @Test
@@ -205,13 +385,42 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").exists());
     }
 
+    @Test
+    void addProjectsToUser_Success() throws Exception {
+        BatchAddProjectResultDto created = new BatchAddProjectResultDto();
+        created.setIndex(0);
+        created.setStatus(BatchAddProjectResultDto.StatusEnum.CREATED);
+        created.setProject(mockProjectResponse);
+        BatchAddProjectsResponseDto batchResponse = new BatchAddProjectsResponseDto();
+        batchResponse.setResults(List.of(created));
+
+        when(userService.addProjectsToUser(eq(1L), anyList())).thenReturn(batchResponse);
+        when(idempotencyService.processIdempotentRequest(
+                any(),
+                any(),
+                any()
+        )).thenAnswer(invocation -> {
+            Supplier<?> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+
+        mockMvc.perform(post("/api/v1/users/1/projects:batch")
+                        .header("Authorization", AUTHORIZATION_HEADER)
+                        .header("Request-Id", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createProjectRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].project.id").exists());
+    }
+
     @Test
     void addProjectToUser_WithIdempotency_Success() throws Exception {
         when(idempotencyService.processIdempotentRequest(
                 eq("test-request-id"),
                 any(),
                 any()
-        )).thenReturn(ResponseEntity.status(201).body(mockProjectResponse));
+        )).thenAnswer(invocation -> ResponseEntity.status(201).body(mockProjectResponse));
 
         mockMvc.perform(post("/api/v1/users/1/projects")
                         .header("Authorization", AUTHORIZATION_HEADER)
@@ -0,0 +1,83 @@
+package com.sky.erm.config;
+
+import com.sky.erm.exception.UserNotFoundException;
+import com.sky.erm.model.UserResponseDto;
+import com.sky.erm.repository.UserRepository;
+import com.sky.erm.service.UserService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LayerTimingAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserService target = mock(UserService.class);
+    private final LayerTimingAspect aspect = new LayerTimingAspect(meterRegistry);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(aspect);
+        userService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void whenServiceCallSucceeds_shouldRecordSuccess() {
+        when(target.getUserById(1L)).thenReturn(new UserResponseDto());
+
+        userService.getUserById(1L);
+
+        Timer timer = meterRegistry.get(LayerTimingAspect.METRIC_NAME)
+                .tag("layer", "service")
+                .tag("method", "getUserById")
+                .tag("outcome", "success")
+                .tag("exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void whenServiceCallFails_shouldRecordErrorWithException() {
+        when(target.getUserById(1L)).thenThrow(new UserNotFoundException("User not found with id: 1"));
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(1L));
+
+        Timer timer = meterRegistry.get(LayerTimingAspect.METRIC_NAME)
+                .tag("layer", "service")
+                .tag("method", "getUserById")
+                .tag("outcome", "error")
+                .tag("exception", "UserNotFoundException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void whenServiceCallsRepository_shouldRecordServiceTimeWithoutRepositoryTime() {
+        UserRepository repositoryTarget = mock(UserRepository.class);
+        AspectJProxyFactory repositoryProxyFactory = new AspectJProxyFactory(repositoryTarget);
+        repositoryProxyFactory.addAspect(aspect);
+        UserRepository userRepository = repositoryProxyFactory.getProxy();
+        when(repositoryTarget.findVersionById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(1L);
+        });
+        when(target.getUserVersion(1L)).thenAnswer(invocation -> userRepository.findVersionById(1L).orElseThrow());
+
+        userService.getUserVersion(1L);
+
+        Timer serviceTimer = meterRegistry.get(LayerTimingAspect.METRIC_NAME).tag("layer", "service").timer();
+        Timer repositoryTimer = meterRegistry.get(LayerTimingAspect.METRIC_NAME).tag("layer", "repository").timer();
+        assertTrue(repositoryTimer.totalTime(TimeUnit.MILLISECONDS) >= 200);
+        assertTrue(serviceTimer.totalTime(TimeUnit.MILLISECONDS) < 100);
+    }
+}
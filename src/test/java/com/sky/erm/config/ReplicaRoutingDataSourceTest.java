@@ -0,0 +1,98 @@
+package com.sky.erm.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String REPLICA = "erm-pool-replica-1";
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReplicaRoutingDataSource(primary, Map.of(REPLICA, replica), Duration.ofSeconds(5),
+                meterRegistry);
+    }
+
+    @Test
+    void whenReplicaWasNotChecked_shouldUsePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1, meterRegistry.get("app.datasource.replica.fallback").counter().count());
+    }
+
+    @Test
+    void whenReplicaLagIsWithinTolerance_shouldUseReplica() throws SQLException {
+        replicaReportsLag(0.5);
+
+        dataSource.checkReplicas();
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1, meterRegistry.get("app.datasource.replica.healthy").tag("replica", REPLICA).gauge().value());
+        assertEquals(0.5, meterRegistry.get("app.datasource.replica.lag").tag("replica", REPLICA).gauge().value());
+    }
+
+    @Test
+    void whenReplicaLagsBehindTolerance_shouldUsePrimary() throws SQLException {
+        replicaReportsLag(30);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        dataSource.checkReplicas();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(0, meterRegistry.get("app.datasource.replica.healthy").tag("replica", REPLICA).gauge().value());
+    }
+
+    @Test
+    void whenReplicaConnectionFails_shouldFallBackToPrimaryUntilNextCheck() throws SQLException {
+        replicaReportsLag(0);
+        dataSource.checkReplicas();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(0, meterRegistry.get("app.datasource.replica.healthy").tag("replica", REPLICA).gauge().value());
+    }
+
+    private void replicaReportsLag(double lagSeconds) throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaRoutingDataSource.LAG_SQL)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+        when(resultSet.wasNull()).thenReturn(false);
+    }
+}
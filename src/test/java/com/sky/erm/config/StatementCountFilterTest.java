@@ -0,0 +1,41 @@
+package com.sky.erm.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCountFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestStatementCounter statementCounter = new RequestStatementCounter();
+    private final StatementCountFilter filter = new StatementCountFilter(statementCounter, meterRegistry);
+
+    @Test
+    void whenRequestIssuesStatements_shouldRecordCountForUriTemplate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+            statementCounter.inspect("select u from erm_user u where u.id=?");
+            statementCounter.inspect("select p from user_external_project p where p.user_id=?");
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/users/{id}");
+        });
+
+        DistributionSummary summary = meterRegistry.get(StatementCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/users/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void whenNoRequestIsOpen_shouldNotCount() {
+        assertEquals("select 1", statementCounter.inspect("select 1"));
+        assertEquals(0, statementCounter.stop());
+    }
+}
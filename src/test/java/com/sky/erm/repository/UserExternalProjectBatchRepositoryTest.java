@@ -0,0 +1,75 @@
+package com.sky.erm.repository;
+
+import com.sky.erm.domain.ErmUser;
+import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.domain.UserExternalProjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserExternalProjectBatchRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserExternalProjectRepository userExternalProjectRepository;
+
+    private ErmUser user;
+
+    @BeforeEach
+    void setUp() {
+        user = new ErmUser();
+        user.setEmail("batch-insert@sky.com");
+        user.setPassword("encoded_password");
+        user.setName("batch-insert");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void whenSomeProjectsAlreadyExist_shouldReportOnlyInsertedOnes() {
+        // Stands in for a concurrent request inserting a project after the duplicate check
+        userExternalProjectRepository.insertIgnoringDuplicates(List.of(project("proj-2")));
+
+        boolean[] inserted = userExternalProjectRepository.insertIgnoringDuplicates(
+                List.of(project("proj-1"), project("proj-2"), project("proj-3")));
+
+        assertArrayEquals(new boolean[]{true, false, true}, inserted);
+    }
+
+    @Test
+    void whenProjectsSpanSeveralBatches_shouldReportEveryRow() {
+        List<UserExternalProject> projects = IntStream.range(0, 250)
+                .mapToObj(i -> project("proj-" + i))
+                .toList();
+        userExternalProjectRepository.insertIgnoringDuplicates(List.of(projects.get(150)));
+
+        boolean[] inserted = userExternalProjectRepository.insertIgnoringDuplicates(projects);
+
+        for (int i = 0; i < projects.size(); i++) {
+            assertEquals(i != 150, inserted[i], "project " + i);
+        }
+    }
+
+    private UserExternalProject project(String projectId) {
+        UserExternalProject project = new UserExternalProject();
+        project.setId(new UserExternalProjectId(projectId, user.getId()));
+        project.setName("Project " + projectId);
+        return project;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sky.erm.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private AuthenticationCache authenticationCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        authenticationCache = new AuthenticationCache(100, Duration.ofMinutes(5));
+        provider = new CachingAuthenticationProvider(delegate, authenticationCache);
+    }
+
+    @Test
+    void whenAuthenticatedTwice_shouldCallDelegateOnce() {
+        when(delegate.authenticate(any())).thenReturn(authenticated("tarek"));
+
+        Authentication first = provider.authenticate(credentials("tarek", "password"));
+        Authentication second = provider.authenticate(credentials("tarek", "password"));
+
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals("tarek", second.getName());
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void whenPasswordDiffers_shouldNotServeFromCache() {
+        when(delegate.authenticate(any()))
+                .thenReturn(authenticated("tarek"))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(credentials("tarek", "password"));
+
+        assertThrows(BadCredentialsException.class, () ->
+            provider.authenticate(credentials("tarek", "wrong-password"))
+        );
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void whenUserInvalidated_shouldAuthenticateAgain() {
+        when(delegate.authenticate(any())).thenReturn(authenticated("tarek"));
+
+        provider.authenticate(credentials("tarek", "password"));
+        authenticationCache.invalidate("tarek");
+        provider.authenticate(credentials("tarek", "password"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void whenUserInvalidatedDuringAuthentication_shouldNotCacheResult() {
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            // The password changes while the old one is being verified
+            authenticationCache.invalidate("tarek");
+            return authenticated("tarek");
+        });
+
+        provider.authenticate(credentials("tarek", "password"));
+
+        assertTrue(authenticationCache.get("tarek", "password").isEmpty());
+    }
+
+    private static Authentication credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private static Authentication authenticated(String username) {
+        User principal = new User(username, "encoded_password", List.of());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+}
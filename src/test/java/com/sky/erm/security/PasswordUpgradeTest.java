@@ -0,0 +1,72 @@
+package com.sky.erm.security;
+
+import com.sky.erm.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordUpgradeTest {
+
+    private static final String USERNAME = "tarek";
+    private static final String PASSWORD = "password";
+
+    @Test
+    void whenLegacyHashAuthenticates_shouldStoreItWithEncoderPrefix() {
+        String storedPassword = loginWith(new BCryptPasswordEncoder(4).encode(PASSWORD), new PasswordProperties("bcrypt", 4));
+
+        assertTrue(storedPassword.startsWith("{bcrypt}$2a$04$"));
+    }
+
+    @Test
+    void whenStrengthIsRaised_shouldRehashOnLogin() {
+        PasswordEncoder previousEncoder = new SecurityConfig().passwordEncoder(new PasswordProperties("bcrypt", 4));
+
+        String storedPassword = loginWith(previousEncoder.encode(PASSWORD), new PasswordProperties("bcrypt", 5));
+
+        assertTrue(storedPassword.startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void whenEncoderIsSwitched_shouldRehashOnLogin() {
+        PasswordEncoder previousEncoder = new SecurityConfig().passwordEncoder(new PasswordProperties("bcrypt", 4));
+
+        String storedPassword = loginWith(previousEncoder.encode(PASSWORD),
+                new PasswordProperties("pbkdf2@SpringSecurity_v5_8", 4));
+
+        assertTrue(storedPassword.startsWith("{pbkdf2@SpringSecurity_v5_8}"));
+    }
+
+    @Test
+    void whenHashIsCurrent_shouldKeepIt() {
+        PasswordProperties properties = new PasswordProperties("bcrypt", 4);
+        String currentHash = new SecurityConfig().passwordEncoder(properties).encode(PASSWORD);
+
+        assertEquals(currentHash, loginWith(currentHash, properties));
+    }
+
+    @Test
+    void whenEncoderIsUnknown_shouldFailFast() {
+        SecurityConfig securityConfig = new SecurityConfig();
+        PasswordProperties properties = new PasswordProperties("md5", 10);
+
+        assertThrows(IllegalStateException.class, () -> securityConfig.passwordEncoder(properties));
+    }
+
+    private static String loginWith(String storedPassword, PasswordProperties properties) {
+        InMemoryUserDetailsManager userDetailsManager = new InMemoryUserDetailsManager(
+                User.withUsername(USERNAME).password(storedPassword).build());
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsManager);
+        provider.setPasswordEncoder(new SecurityConfig().passwordEncoder(properties));
+        provider.setUserDetailsPasswordService(userDetailsManager);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+
+        return userDetailsManager.loadUserByUsername(USERNAME).getPassword();
+    }
+}
@@ -0,0 +1,85 @@
+package com.sky.erm.service;
+
+import com.sky.erm.repository.IdempotencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyCleanupJobTest {
+
+    private static final int BATCH_SIZE = 100;
+    private static final Duration INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private IdempotencyRepository idempotencyRepository;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private IdempotencyCleanupJob cleanupJob;
+
+    @BeforeEach
+    void setUp() {
+        cleanupJob = new IdempotencyCleanupJob(idempotencyRepository, schedulerLockService, metricsService,
+                new IdempotencyCleanupProperties(INTERVAL, BATCH_SIZE, Duration.ZERO));
+    }
+
+    @Test
+    void whenExpiredRecordsSpanSeveralBatches_shouldDeleteUntilBatchIsPartial() {
+        // Given
+        when(schedulerLockService.tryLock(IdempotencyCleanupJob.LOCK_NAME, INTERVAL)).thenReturn(true);
+        when(idempotencyRepository.deleteExpiredBatch(any(OffsetDateTime.class), eq(BATCH_SIZE)))
+                .thenReturn(BATCH_SIZE, BATCH_SIZE, 42);
+
+        // When
+        cleanupJob.cleanupExpiredRecords();
+
+        // Then
+        verify(idempotencyRepository, times(3)).deleteExpiredBatch(any(OffsetDateTime.class), eq(BATCH_SIZE));
+        verify(metricsService).recordIdempotencyCleanup(eq(2 * BATCH_SIZE + 42), any(Duration.class));
+        verify(schedulerLockService).unlock(IdempotencyCleanupJob.LOCK_NAME, INTERVAL);
+    }
+
+    @Test
+    void whenLockHeldByAnotherInstance_shouldSkipRun() {
+        // Given
+        when(schedulerLockService.tryLock(IdempotencyCleanupJob.LOCK_NAME, INTERVAL)).thenReturn(false);
+
+        // When
+        cleanupJob.cleanupExpiredRecords();
+
+        // Then
+        verifyNoInteractions(idempotencyRepository, metricsService);
+        verify(schedulerLockService, never()).unlock(any(), any());
+    }
+
+    @Test
+    void whenCleanupFails_shouldReleaseLock() {
+        // Given
+        when(schedulerLockService.tryLock(IdempotencyCleanupJob.LOCK_NAME, INTERVAL)).thenReturn(true);
+        when(idempotencyRepository.deleteExpiredBatch(any(OffsetDateTime.class), anyInt()))
+                .thenReturn(BATCH_SIZE)
+                .thenThrow(new RuntimeException("Cleanup failed"));
+
+        // When
+        cleanupJob.cleanupExpiredRecords();
+
+        // Then
+        verify(metricsService).recordIdempotencyCleanup(eq(BATCH_SIZE), any(Duration.class));
+        verify(schedulerLockService).unlock(IdempotencyCleanupJob.LOCK_NAME, INTERVAL);
+    }
+}
@@ -0,0 +1,102 @@
+package com.sky.erm.service;
+
+import com.sky.erm.exception.IdempotencyConflictException;
+import com.sky.erm.repository.IdempotencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceConcurrencyTest {
+
+    private static final int PARALLEL_REQUESTS = 8;
+    private static final String TEST_PATH = "/api/v1/users";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    private final String requestId = UUID.randomUUID().toString();
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRepository.deleteById(requestId);
+    }
+
+    @Test
+    void whenParallelDuplicates_shouldExecuteOperationOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REQUESTS);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return idempotencyService.processIdempotentRequest(requestId, TEST_PATH, () -> {
+                            executions.incrementAndGet();
+                            sleep(300);
+                            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 1));
+                        }).getStatusCode().value();
+                    } catch (IdempotencyConflictException e) {
+                        return HttpStatus.CONFLICT.value();
+                    }
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Integer> result : results) {
+                int status = result.get(30, TimeUnit.SECONDS);
+                assertTrue(status == HttpStatus.CREATED.value() || status == HttpStatus.CONFLICT.value(),
+                        "Unexpected status " + status);
+                if (status == HttpStatus.CREATED.value()) {
+                    created++;
+                }
+            }
+
+            assertEquals(1, executions.get());
+            assertTrue(created >= 1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Once the first request has completed, a retry is answered from the stored response
+        ResponseEntity<?> replay = idempotencyService.processIdempotentRequest(requestId, TEST_PATH, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,17 +3,26 @@ package com.sky.erm.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sky.erm.domain.IdempotencyRecord;
+import com.sky.erm.domain.IdempotencyStatus;
 import com.sky.erm.exception.BusinessException;
+import com.sky.erm.exception.IdempotencyConflictException;
 import com.sky.erm.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,15 +37,27 @@ class IdempotencyServiceTest {
     @Mock
     private IdempotencyRepository idempotencyRepository;
 
+    @Mock
+    private IdempotencyCache idempotencyCache;
+
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MetricsService metricsService = new MetricsService(meterRegistry);
+
     @InjectMocks
     private IdempotencyService idempotencyService;
 
     private static final String TEST_KEY = "test-key";
     private static final String TEST_PATH = "/api/test";
     private static final String TEST_RESPONSE_BODY = "{\"id\":1,\"name\":\"test\"}";
+    private static final byte[] TEST_RESPONSE_BYTES = TEST_RESPONSE_BODY.getBytes(StandardCharsets.UTF_8);
 
     @BeforeEach
     void setUp() {
@@ -45,12 +66,12 @@ class IdempotencyServiceTest {
     @Test
     void whenNewRequest_shouldProcessAndSave() throws JsonProcessingException {
         // Given
-        when(idempotencyRepository.findById(TEST_KEY)).thenReturn(Optional.empty());
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
         ResponseEntity<String> response = ResponseEntity.ok(TEST_RESPONSE_BODY);
-        when(objectMapper.writeValueAsString(TEST_RESPONSE_BODY)).thenReturn(TEST_RESPONSE_BODY);
+        when(objectMapper.writeValueAsBytes(TEST_RESPONSE_BODY)).thenReturn(TEST_RESPONSE_BYTES);
 
         // When
-        ResponseEntity<String> result = idempotencyService.processIdempotentRequest(
+        ResponseEntity<?> result = idempotencyService.processIdempotentRequest(
             TEST_KEY,
             TEST_PATH,
             () -> response
@@ -58,11 +79,14 @@ class IdempotencyServiceTest {
 
         // Then
         assertEquals(response.getStatusCode(), result.getStatusCode());
-        verify(idempotencyRepository).save(argThat(record -> 
-            record.getKey().equals(TEST_KEY) &&
-            record.getPath().equals(TEST_PATH) &&
-            record.getStatusCode() == 200
-        ));
+        verify(idempotencyRepository).complete(TEST_KEY, IdempotencyStatus.COMPLETED, TEST_RESPONSE_BYTES, "application/json", null, 200);
+        verify(idempotencyRepository, never()).findById(anyString());
+        verify(idempotencyRepository, never()).release(anyString(), any());
+        verify(idempotencyCache).put(argThat(record -> TEST_KEY.equals(record.getKey())
+                && record.getStatus() == IdempotencyStatus.COMPLETED
+                && Arrays.equals(TEST_RESPONSE_BYTES, record.getResponseBody())));
+        assertEquals(1, stepTimer("claim").count());
+        assertEquals(1, stepTimer("store").count());
     }
 
     @Test
@@ -71,33 +95,121 @@ class IdempotencyServiceTest {
         IdempotencyRecord record = new IdempotencyRecord();
         record.setKey(TEST_KEY);
         record.setPath(TEST_PATH);
+        record.setStatus(IdempotencyStatus.COMPLETED);
         record.setStatusCode(200);
-        record.setResponseBody(TEST_RESPONSE_BODY);
+        record.setResponseBody(TEST_RESPONSE_BYTES);
+        record.setContentType("application/json");
         record.setCreatedAt(OffsetDateTime.now());
         record.setExpiresAt(OffsetDateTime.now().plusHours(24));
 
         when(idempotencyRepository.findById(TEST_KEY)).thenReturn(Optional.of(record));
-        when(objectMapper.readValue(TEST_RESPONSE_BODY, Object.class)).thenReturn(TEST_RESPONSE_BODY);
 
         // When
-        ResponseEntity<String> result = idempotencyService.processIdempotentRequest(
+        ResponseEntity<?> result = idempotencyService.processIdempotentRequest(
+            TEST_KEY,
+            TEST_PATH,
+            () -> fail("Supplier should not be called")
+        );
+
+        // Then
+        assertEquals(200, result.getStatusCode().value());
+        assertArrayEquals(TEST_RESPONSE_BYTES, (byte[]) result.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        verify(idempotencyRepository, never()).complete(anyString(), any(), any(), any(), any(), any());
+        verify(idempotencyCache).put(record);
+    }
+
+    @Test
+    void whenRecordInNearCache_shouldReplayWithoutDatabase() throws JsonProcessingException {
+        // Given
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(TEST_KEY);
+        record.setPath(TEST_PATH);
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setStatusCode(201);
+        record.setResponseBody(TEST_RESPONSE_BYTES);
+        record.setContentType("application/json");
+
+        when(idempotencyCache.get(TEST_KEY)).thenReturn(Optional.of(record));
+
+        // When
+        ResponseEntity<?> result = idempotencyService.processIdempotentRequest(
             TEST_KEY,
             TEST_PATH,
             () -> fail("Supplier should not be called")
         );
 
+        // Then
+        assertEquals(201, result.getStatusCode().value());
+        assertArrayEquals(TEST_RESPONSE_BYTES, (byte[]) result.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        verifyNoInteractions(idempotencyRepository);
+    }
+
+    @Test
+    void whenLargeResponse_shouldStoreCompressed() throws JsonProcessingException {
+        // Given
+        byte[] largeBody = "x".repeat(IdempotencyService.COMPRESSION_THRESHOLD_BYTES * 4).getBytes(StandardCharsets.UTF_8);
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
+        when(objectMapper.writeValueAsBytes(TEST_RESPONSE_BODY)).thenReturn(largeBody);
+
+        // When
+        idempotencyService.processIdempotentRequest(TEST_KEY, TEST_PATH, () -> ResponseEntity.ok(TEST_RESPONSE_BODY));
+
+        // Then
+        verify(idempotencyRepository).complete(eq(TEST_KEY), eq(IdempotencyStatus.COMPLETED),
+                argThat((byte[] stored) -> stored.length < largeBody.length
+                        && Arrays.equals(largeBody, IdempotencyService.decode(stored, IdempotencyService.GZIP_ENCODING))),
+                eq("application/json"), eq(IdempotencyService.GZIP_ENCODING), eq(200));
+    }
+
+    @Test
+    void whenRequestInProgress_shouldRejectWithConflict() {
+        // Given
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(TEST_KEY);
+        record.setPath(TEST_PATH);
+        record.setStatus(IdempotencyStatus.IN_PROGRESS);
+        record.setCreatedAt(OffsetDateTime.now());
+        record.setExpiresAt(OffsetDateTime.now().plusHours(24));
+
+        when(idempotencyRepository.findById(TEST_KEY)).thenReturn(Optional.of(record));
+
+        // When & Then
+        assertThrows(IdempotencyConflictException.class, () ->
+            idempotencyService.processIdempotentRequest(
+                TEST_KEY,
+                TEST_PATH,
+                () -> fail("Supplier should not be called")
+            )
+        );
+        verify(idempotencyRepository).reclaimStale(eq(TEST_KEY), eq(TEST_PATH), eq(IdempotencyStatus.IN_PROGRESS), any(), any());
+    }
+
+    @Test
+    void whenStaleClaimReclaimed_shouldProcess() throws JsonProcessingException {
+        // Given
+        when(idempotencyRepository.reclaimStale(eq(TEST_KEY), eq(TEST_PATH), eq(IdempotencyStatus.IN_PROGRESS), any(), any())).thenReturn(1);
+        when(objectMapper.writeValueAsBytes(TEST_RESPONSE_BODY)).thenReturn(TEST_RESPONSE_BYTES);
+
+        // When
+        ResponseEntity<?> result = idempotencyService.processIdempotentRequest(
+            TEST_KEY,
+            TEST_PATH,
+            () -> ResponseEntity.ok(TEST_RESPONSE_BODY)
+        );
+
         // Then
         assertEquals(200, result.getStatusCode().value());
-        assertEquals(TEST_RESPONSE_BODY, result.getBody());
-        verify(idempotencyRepository, never()).save(any());
+        verify(idempotencyRepository).complete(TEST_KEY, IdempotencyStatus.COMPLETED, TEST_RESPONSE_BYTES, "application/json", null, 200);
     }
 
 
     @Test
     void whenJsonProcessingError_shouldWrapException() throws JsonProcessingException {
         // Given
-        when(idempotencyRepository.findById(TEST_KEY)).thenReturn(Optional.empty());
-        when(objectMapper.writeValueAsString(any())).thenThrow(new JsonProcessingException("Test error") {});
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
+        when(objectMapper.writeValueAsBytes(any())).thenThrow(new JsonProcessingException("Test error") {});
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
@@ -110,12 +222,13 @@ class IdempotencyServiceTest {
 
         assertEquals("Error processing JSON", exception.getMessage());
         assertTrue(exception.getCause() instanceof JsonProcessingException);
+        verify(idempotencyRepository).release(TEST_KEY, IdempotencyStatus.IN_PROGRESS);
     }
 
     @Test
     void whenBusinessException_shouldNotWrap() {
         // Given
-        when(idempotencyRepository.findById(TEST_KEY)).thenReturn(Optional.empty());
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
         
         class TestBusinessException extends BusinessException {
             TestBusinessException() { super("Test business error"); }
@@ -132,28 +245,63 @@ class IdempotencyServiceTest {
         );
 
         assertSame(businessException, thrown);
+        verify(idempotencyRepository).release(TEST_KEY, IdempotencyStatus.IN_PROGRESS);
+        verify(idempotencyCache, never()).put(any());
     }
 
     @Test
-    void whenCleanupExpiredRecords_shouldDeleteAndLog() {
+    void whenPrepared_shouldRunPreparationBeforeTransaction() throws JsonProcessingException {
+        // Given
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
+        when(objectMapper.writeValueAsBytes(TEST_RESPONSE_BODY)).thenReturn(TEST_RESPONSE_BYTES);
+
         // When
-        idempotencyService.cleanupExpiredRecords();
+        ResponseEntity<?> result = idempotencyService.processIdempotentRequest(
+            TEST_KEY,
+            TEST_PATH,
+            () -> {
+                verify(transactionManager, never()).getTransaction(any());
+                return "prepared";
+            },
+            prepared -> {
+                assertEquals("prepared", prepared);
+                return ResponseEntity.ok(TEST_RESPONSE_BODY);
+            }
+        );
 
         // Then
-        verify(idempotencyRepository).deleteExpiredRecords(any(OffsetDateTime.class));
+        assertEquals(200, result.getStatusCode().value());
+        verify(transactionManager).getTransaction(any());
+        verify(idempotencyRepository).complete(TEST_KEY, IdempotencyStatus.COMPLETED, TEST_RESPONSE_BYTES, "application/json", null, 200);
     }
 
     @Test
-    void whenCleanupFails_shouldLogError() {
+    void whenPreparationFails_shouldReleaseWithoutTransaction() {
         // Given
-        doThrow(new RuntimeException("Cleanup failed")).when(idempotencyRepository)
-            .deleteExpiredRecords(any());
+        when(idempotencyRepository.claim(eq(TEST_KEY), eq(TEST_PATH), any(), any())).thenReturn(1);
 
-        // When
-        idempotencyService.cleanupExpiredRecords();
+        class TestBusinessException extends BusinessException {
+            TestBusinessException() { super("Test business error"); }
+        }
 
-        // Then
-        verify(idempotencyRepository).deleteExpiredRecords(any(OffsetDateTime.class));
-        // Note: We could verify logging but that would make the test brittle
+        // When & Then
+        assertThrows(TestBusinessException.class, () ->
+            idempotencyService.processIdempotentRequest(
+                TEST_KEY,
+                TEST_PATH,
+                () -> { throw new TestBusinessException(); },
+                prepared -> fail("Operation should not be called")
+            )
+        );
+
+        verify(idempotencyRepository).release(TEST_KEY, IdempotencyStatus.IN_PROGRESS);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    private Timer stepTimer(String step) {
+        return meterRegistry.get("app.idempotency.duration")
+                .tag("step", step)
+                .tag("outcome", "success")
+                .timer();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.sky.erm.service;
+
+import com.sky.erm.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void hash_ReturnsEncodedPasswordAndRecordsDuration() {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, metricsService,
+                new PasswordHashingProperties(1, 1, Duration.ofSeconds(1)));
+        when(passwordEncoder.encode("password123")).thenReturn("encoded");
+
+        assertEquals("encoded", passwordHashingService.hash("password123"));
+        verify(metricsService).registerPasswordHashingQueue(any());
+        verify(metricsService, timeout(1000)).recordPasswordHash(any(Duration.class));
+    }
+
+    @Test
+    void hashAll_KeepsInputOrder() {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, metricsService,
+                new PasswordHashingProperties(2, 1, Duration.ofSeconds(1)));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+
+        List<String> hashes = passwordHashingService.hashAll(List.of("a", "b", "c", "d", "e"));
+
+        assertEquals(List.of("encoded-a", "encoded-b", "encoded-c", "encoded-d", "encoded-e"), hashes);
+    }
+
+    @Test
+    void hashAll_WhenQueueIsSmallerThanPool_DoesNotRejectItsOwnHashes() {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, metricsService,
+                new PasswordHashingProperties(4, 2, Duration.ofSeconds(1)));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+        List<String> passwords = IntStream.range(0, 50).mapToObj(String::valueOf).toList();
+
+        List<String> hashes = passwordHashingService.hashAll(passwords);
+
+        assertEquals(passwords.stream().map(password -> "encoded-" + password).toList(), hashes);
+        verify(metricsService, never()).incrementPasswordHashingRejection();
+    }
+
+    @Test
+    void hash_WhenQueueIsFull_RejectsWithRetryAfter() throws Exception {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, metricsService,
+                new PasswordHashingProperties(1, 1, Duration.ofSeconds(2)));
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "encoded";
+        });
+
+        // One hash occupies the only thread and a second fills the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.hash("first"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.hash("second"));
+        Collection<Runnable> hashingQueue = hashingQueue();
+        await(() -> hashingQueue.size() == 1);
+
+        PasswordHashingUnavailableException exception = assertThrows(PasswordHashingUnavailableException.class,
+                () -> passwordHashingService.hash("third"));
+        assertEquals(Duration.ofSeconds(2), exception.getRetryAfter());
+        verify(metricsService).incrementPasswordHashingRejection();
+
+        release.countDown();
+        assertEquals("encoded", running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Runnable> hashingQueue() {
+        ArgumentCaptor<Collection<Runnable>> queue = ArgumentCaptor.forClass(Collection.class);
+        verify(metricsService).registerPasswordHashingQueue(queue.capture());
+        return queue.getValue();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.sky.erm.service;
+
+import com.sky.erm.security.AuthenticationCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresUserCacheInvalidatorTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private static final Authentication AUTHENTICATION =
+            UsernamePasswordAuthenticationToken.authenticated("tarek", null, List.of());
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final Cache otherNodeCache = new ConcurrentMapCache("users");
+    private final AuthenticationCache otherNodeAuthenticationCache = new AuthenticationCache(100, Duration.ofMinutes(5));
+    private PostgresUserCacheInvalidator publisher;
+    private PostgresUserCacheInvalidator otherNode;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(POSTGRES.getJdbcUrl());
+        dataSourceProperties.setUsername(POSTGRES.getUsername());
+        dataSourceProperties.setPassword(POSTGRES.getPassword());
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        publisher = new PostgresUserCacheInvalidator(jdbcTemplate, new ConcurrentMapCache("users"),
+                new AuthenticationCache(100, Duration.ofMinutes(5)), dataSourceProperties);
+        otherNode = new PostgresUserCacheInvalidator(jdbcTemplate, otherNodeCache, otherNodeAuthenticationCache,
+                dataSourceProperties);
+        // Cached before the listener connects, so any invalidation sent meanwhile may have been missed
+        otherNodeAuthenticationCache.put("before-start", "password", AUTHENTICATION, otherNodeAuthenticationCache.stamp());
+        otherNode.start();
+
+        // Keep notifying until the listener has evicted a sentinel, so it is known to be listening
+        otherNodeCache.put(0L, "sentinel");
+        waitUntil(() -> {
+            publisher.invalidate(0L);
+            return otherNodeCache.get(0L) == null;
+        });
+        otherNodeCache.put(1L, "user 1");
+        otherNodeCache.put(2L, "user 2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherNode.stop();
+    }
+
+    @Test
+    void committedChange_EvictsUserOnOtherNode() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> publisher.invalidate(1L));
+
+        waitUntil(() -> otherNodeCache.get(1L) == null);
+        assertNotNull(otherNodeCache.get(2L));
+    }
+
+    @Test
+    void rolledBackChange_DoesNotEvict() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.invalidate(2L);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> publisher.invalidate(1L));
+
+        // Notifications arrive in commit order, so once the second one is in the first would have been too
+        waitUntil(() -> otherNodeCache.get(1L) == null);
+        assertNotNull(otherNodeCache.get(2L));
+    }
+
+    @Test
+    void credentialChange_EvictsAuthenticationOnOtherNode() throws InterruptedException {
+        otherNodeAuthenticationCache.put("tarek", "password", AUTHENTICATION, otherNodeAuthenticationCache.stamp());
+
+        transactionTemplate.executeWithoutResult(status -> publisher.invalidate(1L, "tarek"));
+
+        waitUntil(() -> otherNodeCache.get(1L) == null);
+        assertTrue(otherNodeAuthenticationCache.get("tarek", "password").isEmpty());
+    }
+
+    @Test
+    void listenerConnect_ClearsAuthentications() {
+        assertTrue(otherNodeAuthenticationCache.get("before-start", "password").isEmpty());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.sky.erm.service;
+
+import com.sky.erm.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockServiceTest {
+
+    private static final String LOCK_NAME = "test-lock";
+    private static final Duration INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @InjectMocks
+    private SchedulerLockService schedulerLockService;
+
+    @Test
+    void unlock_KeepsLeaseUntilIntervalHasPassed() {
+        when(schedulerLockRepository.create(eq(LOCK_NAME), anyString(), any())).thenReturn(1);
+        OffsetDateTime before = OffsetDateTime.now();
+        assertTrue(schedulerLockService.tryLock(LOCK_NAME, INTERVAL));
+
+        schedulerLockService.unlock(LOCK_NAME, INTERVAL);
+
+        ArgumentCaptor<OffsetDateTime> acquiredUntil = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> releasedUntil = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(schedulerLockRepository).create(eq(LOCK_NAME), anyString(), acquiredUntil.capture());
+        verify(schedulerLockRepository).release(eq(LOCK_NAME), anyString(), releasedUntil.capture());
+        assertEquals(acquiredUntil.getValue(), releasedUntil.getValue());
+        assertFalse(releasedUntil.getValue().isBefore(before.plus(INTERVAL)));
+    }
+
+    @Test
+    void unlock_WhenIntervalHasPassed_EndsLeaseNow() {
+        when(schedulerLockRepository.create(eq(LOCK_NAME), anyString(), any())).thenReturn(0);
+        when(schedulerLockRepository.acquireExpired(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+        assertTrue(schedulerLockService.tryLock(LOCK_NAME, INTERVAL));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        schedulerLockService.unlock(LOCK_NAME, Duration.ZERO);
+
+        ArgumentCaptor<OffsetDateTime> releasedUntil = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(schedulerLockRepository).release(eq(LOCK_NAME), anyString(), releasedUntil.capture());
+        assertFalse(releasedUntil.getValue().isBefore(before));
+        assertTrue(releasedUntil.getValue().isBefore(before.plus(INTERVAL)));
+    }
+}
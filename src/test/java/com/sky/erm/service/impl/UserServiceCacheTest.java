@@ -0,0 +1,141 @@
+package com.sky.erm.service.impl;
+
+import com.sky.erm.config.CacheConfig;
+import com.sky.erm.domain.ErmUser;
+import com.sky.erm.model.CreateProjectRequestDto;
+import com.sky.erm.model.UpdateUserRequestDto;
+import com.sky.erm.model.UserResponseDto;
+import com.sky.erm.repository.UserRepository;
+import com.sky.erm.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache usersCache;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        usersCache.clear();
+
+        ErmUser user = new ErmUser();
+        user.setEmail("cache-test@sky.com");
+        user.setPassword("encoded_password");
+        user.setName("cache-test");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findById(userId).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void getUserById_ReturnsCachedResponse() {
+        UserResponseDto first = userService.getUserById(userId);
+        UserResponseDto second = userService.getUserById(userId);
+
+        assertEquals(first, second);
+        assertNotNull(usersCache.get(userId));
+    }
+
+    @Test
+    void getUserById_ReturnsCopyOfCachedResponse() {
+        UserResponseDto first = userService.getUserById(userId);
+        first.setEmail("changed-by-caller@sky.com");
+
+        UserResponseDto second = userService.getUserById(userId);
+
+        assertNotSame(first, second);
+        assertEquals("cache-test@sky.com", second.getEmail());
+    }
+
+    @Test
+    void updateUser_EvictsCachedUser() {
+        userService.getUserById(userId);
+        UpdateUserRequestDto updateUserRequest = new UpdateUserRequestDto();
+        updateUserRequest.setEmail("cache-test-updated@sky.com");
+
+        userService.updateUser(userId, updateUserRequest, null);
+
+        assertNull(usersCache.get(userId));
+        assertEquals("cache-test-updated@sky.com", userService.getUserById(userId).getEmail());
+    }
+
+    @Test
+    void getUserById_WhenUpdateCommitsDuringLoad_DoesNotCacheStaleUser() {
+        UserResponseDto stale = userService.getUserById(userId);
+        usersCache.clear();
+        UpdateUserRequestDto updateUserRequest = new UpdateUserRequestDto();
+        updateUserRequest.setEmail("cache-test-updated@sky.com");
+
+        // The load has read the old row when the update commits and evicts the user
+        CompletableFuture<UserResponseDto> update = new CompletableFuture<>();
+        UserResponseDto loaded = usersCache.get(userId, () -> {
+            CompletableFuture.supplyAsync(() -> userService.updateUser(userId, updateUserRequest, null))
+                    .whenComplete((user, e) -> {
+                        if (e != null) {
+                            update.completeExceptionally(e);
+                        } else {
+                            update.complete(user);
+                        }
+                    });
+            while (!update.isCompletedExceptionally()
+                    && userRepository.findVersionById(userId).orElseThrow().equals(stale.getVersion())) {
+                Thread.onSpinWait();
+            }
+            return stale;
+        });
+        long updatedVersion = update.join().getVersion();
+
+        assertEquals("cache-test@sky.com", loaded.getEmail());
+        assertNull(usersCache.get(userId));
+        assertEquals(updatedVersion, userService.getUserVersion(userId));
+        assertEquals("cache-test-updated@sky.com", userService.getUserById(userId).getEmail());
+    }
+
+    @Test
+    void addProjectToUser_EvictsCachedUser() {
+        userService.getUserById(userId);
+        CreateProjectRequestDto createProjectRequest = new CreateProjectRequestDto();
+        createProjectRequest.setId("cache-project");
+        createProjectRequest.setName("Cache Project");
+
+        userService.addProjectToUser(userId, createProjectRequest);
+
+        assertNull(usersCache.get(userId));
+        assertEquals(1, userService.getUserById(userId).getProjects().size());
+    }
+
+    @Test
+    void deleteUser_EvictsCachedUser() {
+        userService.getUserById(userId);
+
+        userService.deleteUser(userId);
+
+        assertNull(usersCache.get(userId));
+    }
+}
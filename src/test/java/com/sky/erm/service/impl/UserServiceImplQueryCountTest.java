@@ -0,0 +1,84 @@
+package com.sky.erm.service.impl;
+
+import com.sky.erm.domain.ErmUser;
+import com.sky.erm.domain.UserExternalProject;
+import com.sky.erm.domain.UserExternalProjectId;
+import com.sky.erm.model.UserPageResponseDto;
+import com.sky.erm.repository.UserRepository;
+import com.sky.erm.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserServiceImplQueryCountTest {
+
+    private static final int USER_COUNT = 30;
+    private static final int PROJECTS_PER_USER = 3;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<ErmUser> seededUsers = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USER_COUNT; i++) {
+            ErmUser user = new ErmUser();
+            user.setEmail("query-count-" + i + "@sky.com");
+            user.setPassword("encoded_password");
+            user.setName("query-count-" + i);
+            for (int j = 0; j < PROJECTS_PER_USER; j++) {
+                UserExternalProject project = new UserExternalProject();
+                project.setId(new UserExternalProjectId("proj-" + j, null));
+                project.setName("Project " + j);
+                user.addExternalProject(project);
+            }
+            seededUsers.add(userRepository.save(user));
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(seededUsers);
+        seededUsers.clear();
+    }
+
+    @Test
+    void getAllUsers_statementCountDoesNotGrowWithPageSize() {
+        long smallPageStatements = countStatements(1);
+        long mediumPageStatements = countStatements(10);
+        long largePageStatements = countStatements(USER_COUNT);
+
+        assertEquals(2, smallPageStatements);
+        assertEquals(smallPageStatements, mediumPageStatements);
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    private long countStatements(int pageSize) {
+        statistics.clear();
+        UserPageResponseDto page = userService.getAllUsers(pageSize, null);
+        assertEquals(pageSize, page.getItems().size());
+        return statistics.getPrepareStatementCount();
+    }
+}
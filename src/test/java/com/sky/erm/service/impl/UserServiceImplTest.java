@@ -1,36 +1,57 @@
 package com.sky.erm.service.impl;
 
+import com.sky.erm.config.CacheConfig;
 import com.sky.erm.domain.ErmUser;
 import com.sky.erm.domain.UserExternalProject;
 import com.sky.erm.domain.UserExternalProjectId;
+import com.sky.erm.exception.ConcurrentUpdateException;
 import com.sky.erm.exception.DuplicateEmailException;
+import com.sky.erm.exception.DuplicateProjectException;
 import com.sky.erm.exception.UserNotFoundException;
 import com.sky.erm.mapper.ProjectMapper;
 import com.sky.erm.mapper.UserMapper;
+import com.sky.erm.model.BatchAddProjectResultDto;
+import com.sky.erm.model.BatchAddProjectsResponseDto;
+import com.sky.erm.model.BatchCreateUserResultDto;
+import com.sky.erm.model.BatchCreateUsersResponseDto;
 import com.sky.erm.model.CreateProjectRequestDto;
 import com.sky.erm.model.CreateUserRequestDto;
+import com.sky.erm.model.ProjectPageResponseDto;
 import com.sky.erm.model.ProjectResponseDto;
+import com.sky.erm.model.UserPageResponseDto;
 import com.sky.erm.model.UserResponseDto;
 import com.sky.erm.model.UpdateUserRequestDto;
+import com.sky.erm.repository.UserExternalProjectRepository;
 import com.sky.erm.repository.UserRepository;
+import com.sky.erm.security.AuthenticationCache;
+import com.sky.erm.security.ErmUserDetails;
 import com.sky.erm.service.MetricsService;
+import com.sky.erm.service.UserCacheInvalidator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +60,9 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserExternalProjectRepository userExternalProjectRepository;
+
     @Mock
     private UserMapper userMapper;
 
@@ -46,10 +70,19 @@ class UserServiceImplTest {
     private ProjectMapper projectMapper;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private MetricsService metricsService;
 
     @Mock
-    private MetricsService metricsService;
+    private AuthenticationCache authenticationCache;
+
+    @Mock
+    private UserCacheInvalidator userCacheInvalidator;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache usersCache;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -92,41 +125,110 @@ class UserServiceImplTest {
 
     @Test
     void createUser_Success() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(userMapper.toEntity(any(CreateUserRequestDto.class))).thenReturn(mockUser);
-        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
-        when(userRepository.save(any(ErmUser.class))).thenReturn(mockUser);
+        when(userRepository.saveAndFlush(any(ErmUser.class))).thenReturn(mockUser);
         when(userMapper.toDto(any(ErmUser.class))).thenReturn(mock(UserResponseDto.class));
 
-        UserResponseDto result = userService.createUser(createUserRequest);
+        UserResponseDto result = userService.createUser(createUserRequest, "encoded_password");
 
         assertNotNull(result);
-        verify(userRepository).save(any(ErmUser.class));
+        assertEquals("encoded_password", mockUser.getPassword());
+        verify(userRepository).saveAndFlush(any(ErmUser.class));
+        verify(userRepository, never()).findByEmail(anyString());
         verify(metricsService).incrementUserCreation();
     }
 
     @Test
     void createUser_DuplicateEmail() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(mockUser));
+        when(userMapper.toEntity(any(CreateUserRequestDto.class))).thenReturn(mockUser);
+        when(userRepository.saveAndFlush(any(ErmUser.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, ErmUser.EMAIL_UNIQUE_CONSTRAINT)));
 
         assertThrows(DuplicateEmailException.class, () -> 
-            userService.createUser(createUserRequest)
+            userService.createUser(createUserRequest, "encoded_password")
+        );
+        verify(metricsService, never()).incrementUserCreation();
+    }
+
+    @Test
+    void createUsers_ReportsDuplicatesPerItem() {
+        CreateUserRequestDto existingEmailRequest = new CreateUserRequestDto();
+        existingEmailRequest.setEmail("taken@example.com");
+        existingEmailRequest.setName("Taken");
+        existingEmailRequest.setPassword("password123");
+        ErmUser newUser = new ErmUser();
+        newUser.setPassword("password123");
+        UserResponseDto userResponse = new UserResponseDto();
+
+        when(userRepository.findExistingEmails(List.of("test@example.com", "taken@example.com", "test@example.com")))
+                .thenReturn(List.of("taken@example.com"));
+        when(userMapper.toEntity(createUserRequest)).thenReturn(newUser);
+        when(userRepository.saveAllAndFlush(List.of(newUser))).thenReturn(List.of(newUser));
+        when(userMapper.toDto(newUser)).thenReturn(userResponse);
+
+        BatchCreateUsersResponseDto result = userService.createUsers(
+                List.of(createUserRequest, existingEmailRequest, createUserRequest),
+                List.of("encoded_password", "encoded_taken", "encoded_repeat"));
+
+        assertEquals(3, result.getResults().size());
+        assertEquals(BatchCreateUserResultDto.StatusEnum.CREATED, result.getResults().get(0).getStatus());
+        assertSame(userResponse, result.getResults().get(0).getUser());
+        assertEquals(BatchCreateUserResultDto.StatusEnum.DUPLICATE_EMAIL, result.getResults().get(1).getStatus());
+        assertEquals(BatchCreateUserResultDto.StatusEnum.DUPLICATE_EMAIL, result.getResults().get(2).getStatus());
+        assertEquals(2, result.getResults().get(2).getIndex());
+        assertEquals("encoded_password", newUser.getPassword());
+        verify(metricsService, times(1)).incrementUserCreation();
+    }
+
+    @Test
+    void createUsers_ConcurrentDuplicateEmail() {
+        when(userRepository.findExistingEmails(anyList())).thenReturn(List.of());
+        when(userMapper.toEntity(any(CreateUserRequestDto.class))).thenReturn(mockUser);
+        when(userRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, ErmUser.EMAIL_UNIQUE_CONSTRAINT)));
+
+        assertThrows(DuplicateEmailException.class, () ->
+            userService.createUsers(List.of(createUserRequest), List.of("encoded_password"))
+        );
+        verify(metricsService, never()).incrementUserCreation();
+    }
+
+    @Test
+    void createUser_OtherIntegrityViolation_NotMappedToDuplicateEmail() {
+        when(userMapper.toEntity(any(CreateUserRequestDto.class))).thenReturn(mockUser);
+        when(userRepository.saveAndFlush(any(ErmUser.class))).thenThrow(new DataIntegrityViolationException("not null"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+            userService.createUser(createUserRequest, "encoded_password")
         );
     }
 
     @Test
     void getAllUsers_Success() {
-        when(userRepository.findAll()).thenReturn(Arrays.asList(mockUser));
+        when(userRepository.findIdsAfter(eq(0L), argThat((Limit limit) -> limit.max() == 11))).thenReturn(Arrays.asList(1L));
+        when(userRepository.findAllWithProjectsByIdIn(Arrays.asList(1L))).thenReturn(Arrays.asList(mockUser));
         when(userMapper.toDto(any(ErmUser.class))).thenReturn(mock(UserResponseDto.class));
 
-        List<UserResponseDto> result = userService.getAllUsers();
+        UserPageResponseDto result = userService.getAllUsers(10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
         verify(userMapper).toDto(mockUser);
     }
 
+    @Test
+    void getAllUsers_ReturnsNextCursorWhenMoreUsersExist() {
+        when(userRepository.findIdsAfter(eq(0L), argThat((Limit limit) -> limit.max() == 2))).thenReturn(Arrays.asList(1L, 2L));
+        when(userRepository.findAllWithProjectsByIdIn(Arrays.asList(1L))).thenReturn(Arrays.asList(mockUser));
+        when(userMapper.toDto(any(ErmUser.class))).thenReturn(mock(UserResponseDto.class));
+
+        UserPageResponseDto result = userService.getAllUsers(1, 0L);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(Long.valueOf(1L), result.getNextCursor());
+    }
+
     @Test
     void getUserById_Success() {
         when(userRepository.findByIdWithProjects(anyLong())).thenReturn(Optional.of(mockUser));
@@ -151,15 +253,100 @@ class UserServiceImplTest {
     void updateUser_Success() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-        when(passwordEncoder.encode(anyString())).thenReturn("new_encoded_password");
-        when(userRepository.save(any(ErmUser.class))).thenReturn(mockUser);
+        when(userRepository.saveAndFlush(any(ErmUser.class))).thenReturn(mockUser);
         when(userMapper.toDto(any(ErmUser.class))).thenReturn(mock(UserResponseDto.class));
 
-        UserResponseDto result = userService.updateUser(1L, updateUserRequest);
+        UserResponseDto result = userService.updateUser(1L, updateUserRequest, "new_encoded_password");
 
         assertNotNull(result);
+        assertEquals("new_encoded_password", mockUser.getPassword());
         verify(metricsService).incrementUserUpdate();
-        verify(userRepository).save(mockUser);
+        verify(userRepository).saveAndFlush(mockUser);
+        verify(authenticationCache).invalidate("Test User");
+        verify(userCacheInvalidator).invalidate(1L, "Test User");
+    }
+
+    @Test
+    void updateUser_EmailOnly_KeepsAuthentications() {
+        UpdateUserRequestDto emailOnly = new UpdateUserRequestDto();
+        emailOnly.setEmail("updated@example.com");
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(any(ErmUser.class))).thenReturn(mockUser);
+        when(userMapper.toDto(any(ErmUser.class))).thenReturn(mock(UserResponseDto.class));
+
+        userService.updateUser(1L, emailOnly, null);
+
+        verify(authenticationCache, never()).invalidate(anyString());
+        verify(userCacheInvalidator).invalidate(1L);
+        verify(userCacheInvalidator, never()).invalidate(anyLong(), anyString());
+    }
+
+    @Test
+    void updateUser_ConcurrentModification() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(any(ErmUser.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ErmUser.class, 1L));
+
+        assertThrows(ConcurrentUpdateException.class, () ->
+            userService.updateUser(1L, updateUserRequest, "new_encoded_password")
+        );
+        verify(metricsService, never()).incrementUserUpdate();
+        verify(userCacheInvalidator, never()).invalidate(anyLong());
+        verify(userCacheInvalidator, never()).invalidate(anyLong(), anyString());
+    }
+
+    @Test
+    void getUserVersion_FromCache() {
+        UserResponseDto cachedUser = new UserResponseDto();
+        cachedUser.setVersion(3L);
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(usersCache);
+        when(usersCache.get(1L, UserResponseDto.class)).thenReturn(cachedUser);
+
+        assertEquals(3L, userService.getUserVersion(1L));
+        verify(userRepository, never()).findVersionById(anyLong());
+    }
+
+    @Test
+    void getUserVersion_FromDatabase() {
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(usersCache);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertEquals(5L, userService.getUserVersion(1L));
+    }
+
+    @Test
+    void getUserVersion_NotFound() {
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(usersCache);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () ->
+            userService.getUserVersion(1L)
+        );
+    }
+
+    @Test
+    void updatePassword_StoresUpgradedHashById() {
+        UserDetails user = new ErmUserDetails(1L, "tarek", "$2a$10$legacy");
+        when(userRepository.updatePassword(1L, "{bcrypt}$2a$12$upgraded")).thenReturn(1);
+
+        UserDetails upgraded = userService.updatePassword(user, "{bcrypt}$2a$12$upgraded");
+
+        assertEquals("{bcrypt}$2a$12$upgraded", upgraded.getPassword());
+        assertEquals("tarek", upgraded.getUsername());
+        assertEquals(1L, ((ErmUserDetails) upgraded).getId());
+        verify(userCacheInvalidator, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void updatePassword_UserDeleted() {
+        UserDetails user = new ErmUserDetails(1L, "tarek", "$2a$10$legacy");
+        when(userRepository.updatePassword(1L, "{bcrypt}$2a$12$upgraded")).thenReturn(0);
+
+        assertThrows(UsernameNotFoundException.class, () ->
+            userService.updatePassword(user, "{bcrypt}$2a$12$upgraded")
+        );
     }
 
     @Test
@@ -171,50 +358,171 @@ class UserServiceImplTest {
         when(userRepository.findByEmail(updateUserRequest.getEmail())).thenReturn(Optional.of(existingUser));
 
         assertThrows(DuplicateEmailException.class, () -> 
-            userService.updateUser(1L, updateUserRequest)
+            userService.updateUser(1L, updateUserRequest, "new_encoded_password")
         );
     }
 
     @Test
     void addProjectToUser_Success() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
         when(projectMapper.toEntity(any(CreateProjectRequestDto.class), any(ErmUser.class))).thenReturn(mockProject);
-        when(userRepository.save(any(ErmUser.class))).thenReturn(mockUser);
+        when(userExternalProjectRepository.saveAndFlush(mockProject)).thenReturn(mockProject);
         when(projectMapper.toDto(any(UserExternalProject.class))).thenReturn(mock(ProjectResponseDto.class));
 
         ProjectResponseDto result = userService.addProjectToUser(1L, createProjectRequest);
 
         assertNotNull(result);
         verify(metricsService).incrementProjectAddition();
-        verify(userRepository).save(mockUser);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(ErmUser.class));
+        verify(userRepository).incrementVersion(1L);
+        verify(userCacheInvalidator).invalidate(1L);
+    }
+
+    @Test
+    void addProjectToUser_UserNotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () ->
+            userService.addProjectToUser(1L, createProjectRequest)
+        );
+        verifyNoInteractions(userExternalProjectRepository);
+    }
+
+    @Test
+    void addProjectToUser_DuplicateProject() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
+        when(projectMapper.toEntity(any(CreateProjectRequestDto.class), any(ErmUser.class))).thenReturn(mockProject);
+        when(userExternalProjectRepository.saveAndFlush(mockProject))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DuplicateProjectException.class, () ->
+            userService.addProjectToUser(1L, createProjectRequest)
+        );
+        verify(metricsService, never()).incrementProjectAddition();
+        verify(userRepository, never()).incrementVersion(anyLong());
+    }
+
+    @Test
+    void addProjectsToUser_ReportsDuplicatesPerItem() {
+        CreateProjectRequestDto existingProjectRequest = new CreateProjectRequestDto();
+        existingProjectRequest.setId("proj-existing");
+        existingProjectRequest.setName("Existing Project");
+        CreateProjectRequestDto racedProjectRequest = new CreateProjectRequestDto();
+        racedProjectRequest.setId("proj-raced");
+        racedProjectRequest.setName("Raced Project");
+        UserExternalProject racedProject = new UserExternalProject(
+                new UserExternalProjectId("proj-raced", 1L), mockUser, "Raced Project");
+        ProjectResponseDto projectResponse = new ProjectResponseDto();
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
+        when(userExternalProjectRepository.findExistingProjectIds(1L,
+                List.of("proj-123", "proj-existing", "proj-123", "proj-raced")))
+                .thenReturn(List.of("proj-existing"));
+        when(projectMapper.toEntity(createProjectRequest, mockUser)).thenReturn(mockProject);
+        when(projectMapper.toEntity(racedProjectRequest, mockUser)).thenReturn(racedProject);
+        when(userExternalProjectRepository.insertIgnoringDuplicates(List.of(mockProject, racedProject)))
+                .thenReturn(new boolean[]{true, false});
+        when(projectMapper.toDto(mockProject)).thenReturn(projectResponse);
+
+        BatchAddProjectsResponseDto result = userService.addProjectsToUser(1L,
+                List.of(createProjectRequest, existingProjectRequest, createProjectRequest, racedProjectRequest));
+
+        List<BatchAddProjectResultDto> results = result.getResults();
+        assertEquals(4, results.size());
+        assertEquals(BatchAddProjectResultDto.StatusEnum.CREATED, results.get(0).getStatus());
+        assertSame(projectResponse, results.get(0).getProject());
+        assertEquals(BatchAddProjectResultDto.StatusEnum.DUPLICATE_PROJECT, results.get(1).getStatus());
+        assertEquals(BatchAddProjectResultDto.StatusEnum.DUPLICATE_PROJECT, results.get(2).getStatus());
+        assertEquals(BatchAddProjectResultDto.StatusEnum.DUPLICATE_PROJECT, results.get(3).getStatus());
+        verify(metricsService, times(1)).incrementProjectAddition();
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository).incrementVersion(1L);
+        verify(userCacheInvalidator).invalidate(1L);
+    }
+
+    @Test
+    void addProjectsToUser_AllDuplicates_KeepsVersion() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
+        when(userExternalProjectRepository.findExistingProjectIds(1L, List.of("proj-123")))
+                .thenReturn(List.of("proj-123"));
+
+        BatchAddProjectsResponseDto result = userService.addProjectsToUser(1L, List.of(createProjectRequest));
+
+        assertEquals(BatchAddProjectResultDto.StatusEnum.DUPLICATE_PROJECT, result.getResults().get(0).getStatus());
+        verify(userRepository, never()).incrementVersion(anyLong());
+        verify(userCacheInvalidator, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void addProjectsToUser_UserNotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () ->
+            userService.addProjectsToUser(1L, List.of(createProjectRequest))
+        );
+        verifyNoInteractions(userExternalProjectRepository);
     }
 
     @Test
     void getUserProjects_Success() {
-        mockUser.setExternalProjects(Collections.singleton(mockProject));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(userExternalProjectRepository.findPage(eq(1L), eq(""), eq("%"), argThat((Limit limit) -> limit.max() == 11)))
+                .thenReturn(List.of(mockProject));
         when(projectMapper.toDto(any(UserExternalProject.class))).thenReturn(mock(ProjectResponseDto.class));
 
-        List<ProjectResponseDto> result = userService.getUserProjects(1L);
+        ProjectPageResponseDto result = userService.getUserProjects(1L, 10, null, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
         verify(projectMapper).toDto(mockProject);
+        verify(userRepository, never()).existsById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUserProjects_WithCursorAndPrefix_ReturnsNextCursor() {
+        UserExternalProject secondProject = new UserExternalProject(
+                new UserExternalProjectId("proj-456", 1L), mockUser, "Test Project 2");
+        when(userExternalProjectRepository.findPage(eq(1L), eq("proj-100"), eq("Test\\_%"), argThat((Limit limit) -> limit.max() == 2)))
+                .thenReturn(List.of(mockProject, secondProject));
+        when(projectMapper.toDto(mockProject)).thenReturn(mock(ProjectResponseDto.class));
+
+        ProjectPageResponseDto result = userService.getUserProjects(1L, 1, "proj-100", "Test_");
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("proj-123", result.getNextCursor());
+        verify(projectMapper, never()).toDto(secondProject);
+    }
+
+    @Test
+    void getUserProjects_UserNotFound() {
+        when(userExternalProjectRepository.findPage(eq(1L), any(), any(), any())).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () ->
+            userService.getUserProjects(1L, 10, null, null)
+        );
     }
 
     @Test
     void deleteUser_Success() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        doNothing().when(userRepository).deleteById(anyLong());
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        doNothing().when(userRepository).delete(any(ErmUser.class));
 
         assertDoesNotThrow(() -> userService.deleteUser(1L));
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).delete(mockUser);
+        verify(authenticationCache).invalidate("Test User");
+        verify(userCacheInvalidator).invalidate(1L, "Test User");
     }
 
     @Test
     void deleteUser_NotFound() {
-        when(userRepository.existsById(anyLong())).thenReturn(false);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> 
             userService.deleteUser(1L)